@@ -0,0 +1,68 @@
+package com.example.monopoly.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.monopoly.game.Board;
+
+/**
+ * {@code GameService.buyProperty} on tiles nobody owns yet. A tile can only
+ * be bought once, so this cannot run in a steady loop: every iteration gets
+ * fresh rooms and times one batch of {@link #BATCH} buys, spread over the
+ * rooms first and then over the tiles. Players start rich enough to buy
+ * the whole board.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50, batchSize = BuyBenchmark.BATCH)
+@Measurement(iterations = 50, batchSize = BuyBenchmark.BATCH)
+@Fork(1)
+public class BuyBenchmark {
+    // buyable tiles on the classic board, so even a single room has one for every buy of the batch
+    static final int BATCH = 28;
+    private static final int[] TILES = IntStream.range(0, Board.forKey("classic").size())
+            .filter(Board.forKey("classic")::buyable).toArray();
+
+    @Param({ "1", "100", "1000" })
+    int rooms;
+
+    @Param({ "2", "4" })
+    int players;
+
+    private GameFixture fixture;
+    private int bought;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        fixture = new GameFixture(rooms, players, 1_000_000);
+        bought = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public boolean buyProperty() {
+        int k = bought++;
+        int r = k % rooms, round = k / rooms;
+        return fixture.game.buyProperty(fixture.roomIds[r], fixture.playerIds[r][round % players], TILES[round]);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.monopoly.bench;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.monopoly.game.Board;
+import com.example.monopoly.game.GameEvent;
+import com.example.monopoly.game.GameRules;
+import com.example.monopoly.game.JournalRecord;
+import com.example.monopoly.game.RoomState;
+import com.example.monopoly.ws.BinaryProtocol;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The encodings a state change goes through: the Jackson state view that
+ * full state frames and REST reads carry (built once per version and shared
+ * by every session), the journal record the service writes for every
+ * event, and the binary protocol's state and patch frames. A board with
+ * more tiles owned has a larger view, so {@code owned} covers an empty
+ * board and a sold out one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+    @Param({ "2", "4" })
+    int players;
+
+    @Param({ "0", "28" })
+    int owned;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private GameFixture fixture;
+    private Map<String, Object> view;
+    private RoomState before;
+    private RoomState after;
+    private JournalRecord record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new GameFixture(1, players, 1_000_000);
+        Board board = Board.forKey("classic");
+        int[] tiles = IntStream.range(0, board.size()).filter(board::buyable).limit(owned).toArray();
+        for (int i = 0; i < tiles.length; i++) {
+            fixture.game.buyProperty(fixture.roomIds[0], fixture.playerIds[0][i % players], tiles[i]);
+        }
+        view = fixture.game.getStateForRoom(fixture.sessions[0][0]);
+
+        // the same room through the rules, for the binary frames
+        before = new RoomState();
+        GameRules.apply(before, new GameEvent.RoomCreated("classic", null, 1_000_000, 1));
+        for (int s = 0; s < players; s++) GameRules.apply(before, new GameEvent.PlayerJoined("p" + s, "Player " + s, 1_000_000, false));
+        GameRules.apply(before, new GameEvent.Started());
+        for (int i = 0; i < tiles.length; i++) {
+            GameRules.apply(before, new GameEvent.Bought("p" + (i % players), tiles[i], board.cost(tiles[i])));
+        }
+        GameEvent roll = new GameEvent.Rolled("p0", 7, false);
+        after = before.copy();
+        GameRules.apply(after, roll);
+        after.seq = before.seq + 1;
+        record = new JournalRecord(after.seq, roll);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public byte[] stateJson() throws IOException {
+        return mapper.writeValueAsBytes(view);
+    }
+
+    // view and encoding together, what a room pays once per version for its full state frame
+    @Benchmark
+    public byte[] stateViewAndJson() throws IOException {
+        return mapper.writeValueAsBytes(fixture.game.getStateForRoom(fixture.sessions[0][0]));
+    }
+
+    @Benchmark
+    public byte[] journalRecord() throws IOException {
+        return mapper.writeValueAsBytes(record);
+    }
+
+    @Benchmark
+    public byte[] binaryState() {
+        return BinaryProtocol.encodeState(after);
+    }
+
+    @Benchmark
+    public byte[] binaryPatch() {
+        return BinaryProtocol.encodePatch(before, after);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.monopoly.bench;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import com.example.monopoly.bot.RandomBotStrategy;
+import com.example.monopoly.persistence.PersistenceWriter;
+import com.example.monopoly.persistence.RoomHistory;
+import com.example.monopoly.persistence.RoomJournal;
+import com.example.monopoly.persistence.SnapshotStore;
+import com.example.monopoly.repository.LobbyRepository;
+import com.example.monopoly.service.GameService;
+import com.example.monopoly.service.RoomExecutor;
+import com.example.monopoly.service.SessionRegistry;
+import com.example.monopoly.ws.SessionSender;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A GameService wired by hand the way Spring wires it, on a temporary
+ * directory, with {@code rooms} started games of {@code players} players
+ * each. Sessions accept every frame and drop it. There are no bots, turn
+ * clocks or broadcast ticks, so nothing but the benchmark thread runs
+ * commands on a room and calling the service directly keeps the room's
+ * one-thread-at-a-time rule without going through its mailbox.
+ *
+ * <p>The journal and its background writer are the real ones; the room
+ * history is off, since it only grows and would fill the disk on a long
+ * run without changing what the command thread does.
+ */
+final class GameFixture implements AutoCloseable {
+    final Path dir;
+    final RoomJournal journal;
+    final PersistenceWriter writer;
+    final SnapshotStore snapshots;
+    final RoomHistory history;
+    final RoomExecutor executor;
+    final SessionSender sender;
+    final SessionRegistry registry;
+    final GameService game;
+    final String[] roomIds;
+    // [room][seat]; seats are taken in join order and play in seat order
+    final WebSocketSession[][] sessions;
+    final String[][] playerIds;
+
+    GameFixture(int rooms, int players, int startAmount) throws IOException {
+        dir = Files.createTempDirectory("monopoly-bench");
+        journal = new RoomJournal(dir.resolve("rooms").toString(), 50, 200);
+        history = new RoomHistory(dir.resolve("history").toString(), 0);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        writer = new PersistenceWriter(journal, history, meters, 250, 64);
+        snapshots = new SnapshotStore(dir.toString());
+        executor = new RoomExecutor(0, false, 10, 512);
+        sender = new SessionSender(meters, false, 1, 64, "conflate");
+        registry = new SessionRegistry();
+        game = newGameService();
+        roomIds = new String[rooms];
+        sessions = new WebSocketSession[rooms][players];
+        playerIds = new String[rooms][players];
+        for (int r = 0; r < rooms; r++) {
+            roomIds[r] = "bench-" + r;
+            for (int s = 0; s < players; s++) {
+                sessions[r][s] = session(roomIds[r] + "-" + s, roomIds[r]);
+                playerIds[r][s] = game.addPlayer(sessions[r][s], "Player " + s, "p" + s, roomIds[r]);
+            }
+            game.setStartAmount(sessions[r][0], startAmount);
+            game.startForSession(sessions[r][0]);
+        }
+        // setting up is not part of any measurement, so none of its journal writes may still be pending
+        writer.flush();
+    }
+
+    /** Another service over the same journal and snapshot, as after a restart. */
+    GameService newGameService() {
+        return new GameService(lobbies(), journal, writer, snapshots, history, executor, sender, registry,
+                new RandomBotStrategy(), 0, 0, 0, 0, "roll");
+    }
+
+    @Override
+    public void close() {
+        game.shutdown();
+        writer.close();
+        sender.shutdown();
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException ignored) {}
+    }
+
+    // an open JSON session of the room that drops whatever it is sent; the handler sets roomId on connect
+    static WebSocketSession session(String id, String roomId) {
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        attributes.put("roomId", roomId);
+        return (WebSocketSession) Proxy.newProxyInstance(GameFixture.class.getClassLoader(), new Class<?>[] { WebSocketSession.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId", "toString" -> id;
+                    case "getAttributes" -> attributes;
+                    case "isOpen" -> true;
+                    case "hashCode" -> id.hashCode();
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    // no lobbies stored, so every room gets the defaults
+    private static LobbyRepository lobbies() {
+        return (LobbyRepository) Proxy.newProxyInstance(GameFixture.class.getClassLoader(), new Class<?>[] { LobbyRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByCode" -> Optional.empty();
+                    case "existsByCode" -> false;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "LobbyRepository";
+                    default -> null;
+                });
+    }
+}
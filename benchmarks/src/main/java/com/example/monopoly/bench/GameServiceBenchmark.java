@@ -0,0 +1,84 @@
+package com.example.monopoly.bench;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Player commands through the service, as the WebSocket handler issues
+ * them: a roll (event, copy-on-write publish, journal record encoding), a
+ * roll followed by the broadcast that sends every session its patch, and a
+ * state read. Each call goes to the next room in turn, so with many rooms
+ * the room states no longer stay in cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameServiceBenchmark {
+    @Param({ "1", "100", "1000" })
+    int rooms;
+
+    @Param({ "2", "4" })
+    int players;
+
+    private GameFixture fixture;
+    private int[] turns;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new GameFixture(rooms, players, 1500);
+        turns = new int[rooms];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int rollForSession() {
+        return roll(nextRoom());
+    }
+
+    @Benchmark
+    public int rollAndBroadcast() {
+        int r = nextRoom();
+        int dice = roll(r);
+        fixture.game.broadcastState(fixture.roomIds[r]);
+        return dice;
+    }
+
+    @Benchmark
+    public Map<String, Object> getStateForRoom() {
+        return fixture.game.getStateForRoom(fixture.sessions[nextRoom()][0]);
+    }
+
+    // by the player whose turn it is; a roll always passes the turn on to the next seat
+    private int roll(int r) {
+        return fixture.game.rollForSession(fixture.sessions[r][turns[r]++ % players]);
+    }
+
+    private int nextRoom() {
+        int r = next;
+        next = r + 1 == rooms ? 0 : r + 1;
+        return r;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.monopoly.bench;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.example.monopoly.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One simulated player on its own WebSocket, speaking the JSON protocol the
+ * web client speaks. It joins its room, readies up (the first player starts
+ * games of fewer than four), and when the turn comes to it rolls and then
+ * sometimes buys, each after a think time. A command is timed from its send
+ * to the frame that carries its result, which is the room's broadcast of
+ * the change it made.
+ */
+final class LoadClient implements WebSocket.Listener {
+    private final LoadGenerator load;
+    private final String roomId;
+    private final String name;
+    private final StringBuilder partial = new StringBuilder();
+    // send time by command result type; one of each kind in flight at most
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+    private CompletableFuture<WebSocket> sending;
+    private WebSocket ws;
+
+    // what this player knows of the room; guarded by this
+    private String id;
+    private String adminId;
+    private String currentTurn;
+    private boolean started;
+    private int players;
+    private boolean rolling;
+    private boolean startSent;
+
+    LoadClient(LoadGenerator load, String roomId, String name) {
+        this.load = load;
+        this.roomId = roomId;
+        this.name = name;
+    }
+
+    CompletableFuture<WebSocket> connect(URI server) {
+        String token = JwtUtil.generateAccessToken(name);
+        URI uri = URI.create(server + "?room=" + URLEncoder.encode(roomId, StandardCharsets.UTF_8) + "&token=" + token);
+        return load.http.newWebSocketBuilder().buildAsync(uri, this);
+    }
+
+    void close() {
+        WebSocket w = ws;
+        if (w != null) w.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        ws = webSocket;
+        sending = CompletableFuture.completedFuture(webSocket);
+        load.connected.incrementAndGet();
+        send("assigned", "{\"type\":\"join\",\"payload\":{\"name\":\"" + name + "\"}}");
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            String frame = partial.toString();
+            partial.setLength(0);
+            try {
+                onFrame(load.mapper.readTree(frame));
+            } catch (Exception e) {
+                load.errors.incrementAndGet();
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        load.connected.decrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        load.connected.decrementAndGet();
+        load.errors.incrementAndGet();
+    }
+
+    private synchronized void onFrame(JsonNode frame) {
+        long now = System.nanoTime();
+        load.frames.increment();
+        String type = frame.path("type").asText();
+        JsonNode payload = frame.path("payload");
+        JsonNode result = frame.get("result");
+        if (type.equals("state")) {
+            see(payload);
+        } else if (type.equals("patch")) {
+            see(payload.path("set"));
+        } else {
+            result = frame;
+        }
+        if (result != null) {
+            String resultType = result.path("type").asText();
+            Long sent = inFlight.remove(resultType);
+            if (sent != null) load.record(resultType, now - sent);
+            onResult(resultType, result.path("payload"));
+        }
+        act();
+    }
+
+    // fields of a full state, or those a patch replaced
+    private void see(JsonNode st) {
+        if (st.has("started")) started = st.get("started").asBoolean();
+        if (st.has("adminId")) adminId = st.get("adminId").textValue();
+        if (st.has("currentTurn")) currentTurn = st.get("currentTurn").textValue();
+        if (st.has("players")) players = st.get("players").size();
+    }
+
+    private void onResult(String type, JsonNode payload) {
+        switch (type) {
+            case "assigned" -> {
+                id = payload.path("id").asText();
+                later(load.config.thinkMs() / 2, () -> send(null, "{\"type\":\"ready\",\"payload\":{\"ready\":true}}"));
+            }
+            case "rollResult" -> {
+                rolling = false;
+                // landed somewhere: the server turns the buy down if the tile is taken or too dear
+                if (ThreadLocalRandom.current().nextDouble() < load.config.buyChance()) {
+                    later(think(), () -> send("buyResult", "{\"type\":\"buy\"}"));
+                }
+            }
+            default -> {}
+        }
+    }
+
+    private void act() {
+        if (id == null) return;
+        if (!started && !startSent && id.equals(adminId) && players == load.config.players() && players < 4) {
+            // four ready players start on their own, fewer need the admin
+            startSent = true;
+            later(load.config.thinkMs(), () -> send("startResult", "{\"type\":\"start\"}"));
+        }
+        if (started && !rolling && id.equals(currentTurn)) {
+            rolling = true;
+            later(think(), () -> send("rollResult", "{\"type\":\"roll\"}"));
+        }
+    }
+
+    // log-normal around the configured think time, as people are
+    private long think() {
+        double factor = Math.exp(0.5 * ThreadLocalRandom.current().nextGaussian());
+        return (long) (load.config.thinkMs() * factor);
+    }
+
+    private void later(long delayMs, Runnable action) {
+        load.scheduler.schedule(action, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    // sends on one socket must not overlap, so each waits for the one before
+    private synchronized void send(String resultType, String json) {
+        sending = sending.thenCompose(w -> {
+            if (resultType != null) inFlight.put(resultType, System.nanoTime());
+            load.commands.increment();
+            return w.sendText(json, true);
+        }).exceptionally(e -> {
+            load.errors.incrementAndGet();
+            return ws;
+        });
+    }
+}
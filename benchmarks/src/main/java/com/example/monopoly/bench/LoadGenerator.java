@@ -0,0 +1,311 @@
+package com.example.monopoly.bench;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.monopoly.Application;
+import com.example.monopoly.config.VirtualThreads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Plays many games at once over real WebSockets to find how many rooms one
+ * node carries. Unless {@code --url} points at a running server it starts
+ * one in this JVM on the {@code memory} profile (no MongoDB; journal,
+ * snapshot and history in a temporary directory), then connects
+ * {@code rooms × players} {@link LoadClient}s over the ramp-up and lets
+ * them play for the duration.
+ *
+ * <p>Every interval it prints command latency (send to the broadcast frame
+ * carrying the result; p50, p99, p99.9, max), commands and frames per
+ * second, heap and the collections of the interval. At the end it prints
+ * latency per command once everyone is connected, the steady load that
+ * finds the ceiling (joins show in the ramp-up lines). Heap and GC are this
+ * JVM's, which holds the server and the clients alike, so compare runs
+ * rather than read them as the server's alone.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.monopoly.bench.LoadGenerator --rooms=500 --duration=120
+ * </pre>
+ *
+ * Options (defaults): {@code --rooms=250 --players=4 --think-ms=1500
+ * --buy=0.6 --duration=60 --ramp=10 --interval=5 --url=}; any
+ * {@code --game.*}, {@code --server.*} or {@code --spring.*} option goes to
+ * the server.
+ *
+ * <p>{@code --compare=threads} plays the same load twice, against a server
+ * on platform threads and then one with {@code game.threads.virtual}, and
+ * ends with both side by side: clients held, steady throughput and
+ * latency, errors and the most platform threads alive at once. Virtual
+ * threads need Java 21+; on an older runtime the second server falls back
+ * to platform threads and the table says so. Both run in this JVM, so the
+ * first also warms it up for the second: use a long ramp-up, or repeat.
+ */
+public final class LoadGenerator {
+    record Config(int rooms, int players, long thinkMs, double buyChance, long durationS, long rampS, long intervalS, String url,
+                  boolean compareThreads) {}
+
+    // one run after the ramp-up; threads are platform threads, which is what virtual threads save
+    record Result(int peakClients, Histogram latency, double commandsPerSecond, double framesPerSecond, int errors, int peakThreads) {}
+
+    private static final String[] COMMANDS = { "assigned", "startResult", "rollResult", "buyResult" };
+
+    final Config config;
+    final HttpClient http;
+    private final ExecutorService httpThreads;
+    final ObjectMapper mapper = new ObjectMapper();
+    final ScheduledExecutorService scheduler;
+    final AtomicInteger connected = new AtomicInteger();
+    final AtomicInteger errors = new AtomicInteger();
+    final LongAdder commands = new LongAdder();
+    final LongAdder frames = new LongAdder();
+    // microseconds, by result type; read out and reset every interval
+    private final Map<String, Recorder> latency = new ConcurrentHashMap<>();
+    // after the ramp-up
+    private final Map<String, Histogram> total = new LinkedHashMap<>();
+
+    private LoadGenerator(Config config) {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.config = config;
+        this.scheduler = Executors.newScheduledThreadPool(threads, daemon("load-client"));
+        // the default is a cached pool, which grows a thread per socket busy at the same time
+        this.httpThreads = Executors.newFixedThreadPool(threads, daemon("load-http"));
+        this.http = HttpClient.newBuilder().executor(httpThreads).build();
+        for (String c : COMMANDS) latency.put(c, new Recorder(3));
+    }
+
+    public static void main(String[] args) throws Exception {
+        // the WebSocket handshake completes on the common pool, which starts a thread per task below two
+        if (System.getProperty("java.util.concurrent.ForkJoinPool.common.parallelism") == null) {
+            System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism",
+                    String.valueOf(Math.max(2, Runtime.getRuntime().availableProcessors() - 1)));
+        }
+        Map<String, String> opts = new LinkedHashMap<>();
+        List<String> serverArgs = new ArrayList<>();
+        for (String a : args) {
+            if (a.startsWith("--game.") || a.startsWith("--server.") || a.startsWith("--spring.")) {
+                serverArgs.add(a);
+            } else if (a.startsWith("--") && a.contains("=")) {
+                opts.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("unknown option " + a);
+            }
+        }
+        Config config = new Config(
+                Integer.parseInt(opts.getOrDefault("rooms", "250")),
+                Integer.parseInt(opts.getOrDefault("players", "4")),
+                Long.parseLong(opts.getOrDefault("think-ms", "1500")),
+                Double.parseDouble(opts.getOrDefault("buy", "0.6")),
+                Long.parseLong(opts.getOrDefault("duration", "60")),
+                Long.parseLong(opts.getOrDefault("ramp", "10")),
+                Long.parseLong(opts.getOrDefault("interval", "5")),
+                opts.getOrDefault("url", ""),
+                switch (opts.getOrDefault("compare", "")) {
+                    case "" -> false;
+                    case "threads" -> true;
+                    default -> throw new IllegalArgumentException("--compare takes threads");
+                });
+        if (config.players() < 2 || config.players() > 4) throw new IllegalArgumentException("--players must be 2 to 4");
+        if (config.compareThreads() && !config.url().isEmpty()) throw new IllegalArgumentException("--compare starts its own servers, drop --url");
+
+        if (config.compareThreads()) {
+            Map<String, Result> results = new LinkedHashMap<>();
+            for (boolean virtual : new boolean[] { false, true }) {
+                List<String> modeArgs = new ArrayList<>(serverArgs);
+                modeArgs.add("--game.threads.virtual=" + virtual);
+                System.out.printf("%n== %s threads ==%n", virtual ? "virtual" : "platform");
+                results.put(virtual ? "virtual" : "platform", runInProcess(config, modeArgs));
+            }
+            compare(results);
+        } else if (config.url().isEmpty()) {
+            runInProcess(config, serverArgs);
+        } else {
+            new LoadGenerator(config).run(URI.create(config.url()));
+        }
+        System.exit(0);
+    }
+
+    private static Result runInProcess(Config config, List<String> serverArgs) throws Exception {
+        Path dir = Files.createTempDirectory("monopoly-load");
+        ConfigurableApplicationContext server = startServer(dir, serverArgs);
+        try {
+            URI url = URI.create("ws://localhost:" + server.getEnvironment().getProperty("local.server.port") + "/game");
+            return new LoadGenerator(config).run(url);
+        } finally {
+            server.close();
+            delete(dir);
+        }
+    }
+
+    private static void compare(Map<String, Result> results) {
+        System.out.printf("%n%-9s %7s %7s %8s %8s %8s %8s %6s %8s%n",
+                "threads", "clients", "cmd/s", "frames/s", "p50 ms", "p99 ms", "p999 ms", "errors", "threads");
+        results.forEach((mode, r) -> System.out.printf("%-9s %7d %7.0f %8.0f %8.2f %8.2f %8.2f %6d %8d%n",
+                mode, r.peakClients(), r.commandsPerSecond(), r.framesPerSecond(),
+                ms(r.latency(), 50), ms(r.latency(), 99), ms(r.latency(), 99.9), r.errors(), r.peakThreads()));
+        if (!VirtualThreads.available()) {
+            System.out.printf("Java %d has no virtual threads: both servers ran on platform threads, run this on Java 21+%n",
+                    Runtime.version().feature());
+        }
+    }
+
+    private static ConfigurableApplicationContext startServer(Path dir, List<String> serverArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=memory",
+                "--server.port=0",
+                "--game.journal.dir=" + dir.resolve("rooms"),
+                "--game.snapshot.dir=" + dir.resolve("snapshots"),
+                "--game.history.dir=" + dir.resolve("history"),
+                // a line per connection would be most of the output
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.monopoly=WARN",
+                // Tomcat stops before the beans whose threads it would call leaked
+                "--logging.level.org.apache.catalina.loader=ERROR"));
+        args.addAll(serverArgs);
+        SpringApplication app = new SpringApplication(Application.class);
+        app.setBannerMode(Banner.Mode.OFF);
+        return app.run(args.toArray(String[]::new));
+    }
+
+    private Result run(URI url) throws InterruptedException {
+        int clients = config.rooms() * config.players();
+        System.out.printf("%d rooms of %d players (%d clients) against %s, think %d ms, buy %.0f%%, %d s after %d s ramp-up%n",
+                config.rooms(), config.players(), clients, url, config.thinkMs(), config.buyChance() * 100, config.durationS(), config.rampS());
+        List<LoadClient> all = new ArrayList<>(clients);
+        long spacingNanos = TimeUnit.SECONDS.toNanos(config.rampS()) / Math.max(1, clients);
+        for (int r = 0; r < config.rooms(); r++) {
+            for (int s = 0; s < config.players(); s++) {
+                int i = r * config.players() + s;
+                LoadClient client = new LoadClient(this, "load-" + r, "load-" + r + "-" + s);
+                all.add(client);
+                scheduler.schedule(() -> client.connect(url).exceptionally(e -> {
+                    errors.incrementAndGet();
+                    return null;
+                }), i * spacingNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        System.out.printf("%6s %7s %7s %8s %8s %8s %8s %8s %9s %5s %6s %6s%n",
+                "time", "clients", "cmd/s", "frames/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "heap MB", "gc", "gc ms", "errors");
+        long start = System.nanoTime();
+        long rampEnd = start + TimeUnit.SECONDS.toNanos(config.rampS());
+        long end = rampEnd + TimeUnit.SECONDS.toNanos(config.durationS());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(config.intervalS());
+        long[] gcBefore = gc();
+        long commandsBefore = 0, framesBefore = 0, last = start;
+        long steadyCommands = 0, steadyFrames = 0, steadyNanos = 0;
+        int peakClients = 0;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        for (long next = start + intervalNanos; next <= end; next += intervalNanos) {
+            TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+            long now = System.nanoTime();
+            double seconds = (now - last) / 1e9;
+            Histogram interval = new Histogram(3);
+            for (String c : COMMANDS) {
+                Histogram h = latency.get(c).getIntervalHistogram();
+                interval.add(h);
+                if (last >= rampEnd) total.computeIfAbsent(c, k -> new Histogram(3)).add(h);
+            }
+            long cmds = commands.sum(), frms = frames.sum();
+            if (last >= rampEnd) {
+                steadyCommands += cmds - commandsBefore;
+                steadyFrames += frms - framesBefore;
+                steadyNanos += now - last;
+            }
+            peakClients = Math.max(peakClients, connected.get());
+            long[] gcNow = gc();
+            MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            System.out.printf("%5ds %7d %7.0f %8.0f %8.2f %8.2f %8.2f %8.2f %4d/%-4d %5d %6d %6d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(now - start), connected.get(),
+                    (cmds - commandsBefore) / seconds, (frms - framesBefore) / seconds,
+                    ms(interval, 50), ms(interval, 99), ms(interval, 99.9), interval.getMaxValue() / 1000.0,
+                    heap.getUsed() >> 20, heap.getCommitted() >> 20, gcNow[0] - gcBefore[0], gcNow[1] - gcBefore[1], errors.get());
+            last = now;
+            commandsBefore = cmds;
+            framesBefore = frms;
+            gcBefore = gcNow;
+        }
+
+        // no more moves, and what closing the sockets breaks is not the server's doing
+        scheduler.shutdownNow();
+        int errorsInRun = errors.get();
+        all.forEach(LoadClient::close);
+        System.out.printf("%nafter the ramp-up%n%-12s %8s %8s %8s %8s %8s%n", "command", "count", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Histogram overall = new Histogram(3);
+        for (Map.Entry<String, Histogram> e : total.entrySet()) {
+            Histogram h = e.getValue();
+            if (h.getTotalCount() == 0) continue;
+            overall.add(h);
+            summary(e.getKey(), h);
+        }
+        summary("all", overall);
+        httpThreads.shutdownNow();
+        double seconds = Math.max(1, steadyNanos) / 1e9;
+        return new Result(peakClients, overall, steadyCommands / seconds, steadyFrames / seconds, errorsInRun, threads.getPeakThreadCount());
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    void record(String resultType, long nanos) {
+        Recorder r = latency.get(resultType);
+        if (r != null) r.recordValue(Math.max(1, nanos / 1000));
+    }
+
+    private static void summary(String name, Histogram h) {
+        System.out.printf("%-12s %8d %8.2f %8.2f %8.2f %8.2f%n",
+                name, h.getTotalCount(), ms(h, 50), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000.0);
+    }
+
+    private static double ms(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    // collections and milliseconds spent in them so far, over all collectors
+    private static long[] gc() {
+        long count = 0, time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] { count, time };
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException ignored) {}
+    }
+}
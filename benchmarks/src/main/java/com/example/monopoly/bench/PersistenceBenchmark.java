@@ -0,0 +1,94 @@
+package com.example.monopoly.bench;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.monopoly.game.GameEvent;
+import com.example.monopoly.game.GameRules;
+import com.example.monopoly.game.RoomCodec;
+import com.example.monopoly.game.RoomState;
+import com.example.monopoly.service.GameService;
+
+/**
+ * Saving and loading rooms. {@code checkpoint} writes every room into a new
+ * snapshot generation (the periodic save), {@code restore} is a restart:
+ * a new service maps the snapshot and every room is decoded and read once.
+ * The per-room binary image they are made of is measured on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({ "1", "100", "1000" })
+    int rooms;
+
+    @Param({ "2", "4" })
+    int players;
+
+    private GameFixture fixture;
+    private RoomState room;
+    private byte[] image;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new GameFixture(rooms, players, 1500);
+        // a few turns in every room, then everything in the snapshot and the journals empty
+        for (int turn = 0; turn < 4 * players; turn++) {
+            for (int r = 0; r < rooms; r++) fixture.game.rollForSession(fixture.sessions[r][turn % players]);
+        }
+        fixture.game.checkpoint();
+        fixture.writer.flush();
+
+        room = new RoomState();
+        GameRules.apply(room, new GameEvent.RoomCreated("classic", null, 1500, 1));
+        for (int s = 0; s < players; s++) GameRules.apply(room, new GameEvent.PlayerJoined("p" + s, "Player " + s, 1500, false));
+        GameRules.apply(room, new GameEvent.Started());
+        image = RoomCodec.encode(room);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void checkpoint() {
+        fixture.game.checkpoint();
+    }
+
+    @Benchmark
+    public int restore() throws IOException {
+        GameService restarted = fixture.newGameService();
+        int bytes = 0;
+        for (String id : fixture.roomIds) bytes += restarted.getStateJson(id).length;
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] encodeRoom() {
+        return RoomCodec.encode(room);
+    }
+
+    @Benchmark
+    public RoomState decodeRoom() {
+        return RoomCodec.decode(ByteBuffer.wrap(image));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.monopoly.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.monopoly.game.GameEvent;
+import com.example.monopoly.game.GameRules;
+import com.example.monopoly.game.RoomRandom;
+import com.example.monopoly.game.RoomState;
+
+/**
+ * The rules alone, on one room state: passing the turn on (what a skipped
+ * turn does, and the last step of every roll), a roll, and the copy of the
+ * state that every event the service emits starts with.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark {
+    @Param({ "2", "4" })
+    int players;
+
+    private RoomState room;
+    // by seat
+    private GameEvent[] skips;
+    private GameEvent[] rolls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        room = new RoomState();
+        GameRules.apply(room, new GameEvent.RoomCreated("classic", null, 1500, 1));
+        skips = new GameEvent[players];
+        rolls = new GameEvent[players];
+        for (int s = 0; s < players; s++) {
+            GameRules.apply(room, new GameEvent.PlayerJoined("p" + s, "Player " + s, 1500, false));
+            skips[s] = new GameEvent.TurnSkipped("p" + s);
+            rolls[s] = new GameEvent.Rolled("p" + s, RoomRandom.dice(1, s), false);
+        }
+        GameRules.apply(room, new GameEvent.Started());
+    }
+
+    @Benchmark
+    public int advanceTurn() {
+        GameRules.apply(room, skips[room.turnSeat]);
+        return room.turnSeat;
+    }
+
+    @Benchmark
+    public int roll() {
+        GameRules.apply(room, rolls[room.turnSeat]);
+        return room.turnSeat;
+    }
+
+    // what GameService.emit does to the room before publishing it
+    @Benchmark
+    public RoomState copyAndRoll() {
+        RoomState next = room.copy();
+        GameRules.apply(next, rolls[next.turnSeat]);
+        next.seq = room.seq + 1;
+        room = next;
+        return next;
+    }
+}
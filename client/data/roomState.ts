@@ -0,0 +1,56 @@
+// Room state as the server sends it: one full 'state' frame, then 'patch' frames
+// that each move the state from one version to the next.
+
+export type RoomState = {
+  version: number
+  players: any[]
+  properties: any[]
+  lastMove: any
+  started: boolean
+  adminId?: string | null
+  startAmount?: number
+  currentTurn?: string | null
+}
+
+export type RoomPatch = {
+  from: number
+  version: number
+  set?: Partial<RoomState>
+  players?: any[]
+  owners?: Record<string, string | null>
+}
+
+// Fold a 'state' or 'patch' message into the current state. `resync` is true when a
+// patch does not start at our version; the caller should then send { type: 'resync' }
+// and keep the old state until the full one arrives.
+export function reduceRoomState(state: RoomState | null, msg: any): { state: RoomState | null, resync: boolean } {
+  if (msg.type === 'state') return { state: msg.payload as RoomState, resync: false }
+  if (msg.type !== 'patch') return { state, resync: false }
+  const patch = msg.payload as RoomPatch
+  if (state && patch.version <= state.version) return { state, resync: false } // already have it
+  if (!state || patch.from !== state.version) return { state, resync: true }
+
+  const next: RoomState = { ...state, ...(patch.set || {}), version: patch.version }
+  if (patch.players && patch.players.length) {
+    const changed = new Map(patch.players.map((p) => [p.id, p]))
+    next.players = next.players.map((p) => (changed.has(p.id) ? { ...p, ...changed.get(p.id) } : p))
+  }
+  if (patch.owners) {
+    const owners = patch.owners
+    next.properties = next.properties.map((p) => (String(p.id) in owners ? { ...p, ownerId: owners[String(p.id)] } : p))
+  }
+  return { state: next, resync: false }
+}
+
+// The seat's resume token from 'assigned', kept per tab so a reconnect can send
+// { type: 'resume', payload: { token, version } } instead of joining again.
+export function loadResumeToken(roomId: string): string | null {
+  try { return sessionStorage.getItem('resume:' + roomId) } catch { return null }
+}
+
+export function saveResumeToken(roomId: string, token: string | null | undefined) {
+  try {
+    if (token) sessionStorage.setItem('resume:' + roomId, token)
+    else sessionStorage.removeItem('resume:' + roomId)
+  } catch {}
+}
@@ -3,6 +3,7 @@ import React, { useEffect, useRef, useState } from 'react'
 import Board from '../../components/Board'
 import DebugPanel from '../../components/DebugPanel'
 import { useAuth } from '../../context/AuthContext'
+import { reduceRoomState, RoomState } from '../../data/roomState'
 
 export default function BoardPage() {
   const router = useRouter()
@@ -14,6 +15,7 @@ export default function BoardPage() {
   const [lastWsEvent, setLastWsEvent] = useState<string | undefined>(undefined)
   const [myPlayerId, setMyPlayerId] = useState<string | null>(null)
   const wsRef = useRef<WebSocket | null>(null)
+  const roomRef = useRef<RoomState | null>(null)
 
   const handleBuyProperty = (propertyId: number) => {
     if (wsRef.current && wsRef.current.readyState === WebSocket.OPEN) {
@@ -35,22 +37,32 @@ export default function BoardPage() {
       if (wsRef.current) try { wsRef.current.close() } catch {}
       const socket = new WebSocket(url)
       wsRef.current = socket
+      roomRef.current = null
       socket.addEventListener('open', () => { setLastWsEvent('open'); console.debug('WS open', url) })
       socket.addEventListener('message', (ev) => {
         try {
-          const msg = JSON.parse(ev.data)
-          console.log('📩 WebSocket message:', msg)
-          if (msg.type === 'state') {
-            console.log('🎮 Game state received:', {
-              players: msg.payload.players?.length || 0,
-              properties: msg.payload.properties?.length || 0
-            })
-            setPlayers(msg.payload.players || [])
-            setProperties(msg.payload.properties || [])
+          const frame = JSON.parse(ev.data)
+          // a command's result comes in the same frame as the state change it caused
+          for (const msg of frame.result ? [frame, frame.result] : [frame]) {
+            console.log('📩 WebSocket message:', msg)
+            if (msg.type === 'state' || msg.type === 'patch') {
+              const r = reduceRoomState(roomRef.current, msg)
+              if (r.resync) socket.send(JSON.stringify({ type: 'resync' }))
+              if (!r.state || r.state === roomRef.current) continue
+              roomRef.current = r.state
+              const state = r.state
+              console.log('🎮 Game state received:', {
+                version: state.version,
+                players: state.players?.length || 0,
+                properties: state.properties?.length || 0
+              })
+              setPlayers(state.players || [])
+              setProperties(state.properties || [])
             
-            // Find my player ID
-            const me = (msg.payload.players || []).find((p: any) => !p.id.startsWith('bot_'))
-            if (me) setMyPlayerId(me.id)
+              // Find my player ID
+              const me = (state.players || []).find((p: any) => !p.id.startsWith('bot_'))
+              if (me) setMyPlayerId(me.id)
+            }
           }
         } catch (e) { console.error('invalid msg', e) }
       })
@@ -7,6 +7,7 @@ import Lobby from '../components/Lobby'
 import DebugPanel from '../components/DebugPanel'
 import { useAuth } from '../context/AuthContext'
 import { useModal } from '../context/ModalContext'
+import { loadResumeToken, reduceRoomState, RoomState, saveResumeToken } from '../data/roomState'
 
 type Player = { id: string; name: string; pos: number; money?: number }
 type Property = { id: number; name: string; cost: number; ownerId: string | null }
@@ -24,6 +25,7 @@ export default function Home() {
   const [rolling, setRolling] = useState(false)
   const [lastDice, setLastDice] = useState<number | null>(null)
   const nameRef = useRef<HTMLInputElement | null>(null)
+  const roomRef = useRef<RoomState | null>(null)
   const { token, currentUser, loginWithToken, logout, tryRefreshIfNeeded } = useAuth()
   const { openModal } = useModal()
   // modal now handled by ModalContext
@@ -63,32 +65,49 @@ export default function Home() {
       }
       const socket = new WebSocket(url)
       wsRef.current = socket
-  socket.addEventListener('open', () => { reconnectRef.current = 0; setConnected(true); setLastWsEvent('open'); console.debug('WS open', url) })
+      roomRef.current = null
+  socket.addEventListener('open', () => {
+        reconnectRef.current = 0; setConnected(true); setLastWsEvent('open'); console.debug('WS open', url)
+        // back within the grace period: keep the seat instead of joining again
+        const resumeToken = loadResumeToken('default')
+        if (resumeToken) socket.send(JSON.stringify({ type: 'resume', payload: { token: resumeToken, version: -1 } }))
+      })
       socket.addEventListener('message', (ev) => {
       try {
-        const msg = JSON.parse(ev.data)
-        if (msg.type === 'state') {
-          setPlayers(msg.payload.players || [])
-          setProperties(msg.payload.properties || [])
-          setLastMove(msg.payload.lastMove || null)
-          setStarted(!!msg.payload.started)
-          if (msg.payload.lastMove && msg.payload.lastMove.dice) setLastDice(msg.payload.lastMove.dice)
-          setRolling(false)
-        } else if (msg.type === 'assigned') {
-          setMyId(msg.payload.id)
-        } else if (msg.type === 'joinResult') {
-          const r = msg.payload
-          if (r && r.success === false) {
-            toast.error('Join failed: ' + (r.message || 'unknown'))
+        const frame = JSON.parse(ev.data)
+        // a command's result comes in the same frame as the state change it caused
+        for (const msg of frame.result ? [frame, frame.result] : [frame]) {
+          if (msg.type === 'state' || msg.type === 'patch') {
+            const r = reduceRoomState(roomRef.current, msg)
+            if (r.resync) socket.send(JSON.stringify({ type: 'resync' }))
+            if (!r.state || r.state === roomRef.current) continue
+            roomRef.current = r.state
+            const state = r.state
+            setPlayers(state.players || [])
+            setProperties(state.properties || [])
+            setLastMove(state.lastMove || null)
+            setStarted(!!state.started)
+            if (state.lastMove && state.lastMove.dice) setLastDice(state.lastMove.dice)
+            setRolling(false)
+          } else if (msg.type === 'assigned') {
+            setMyId(msg.payload.id)
+            saveResumeToken(msg.payload.roomId, msg.payload.resumeToken)
+          } else if (msg.type === 'resumeResult') {
+            if (!msg.payload.success) saveResumeToken('default', null)
+          } else if (msg.type === 'joinResult') {
+            const r = msg.payload
+            if (r && r.success === false) {
+              toast.error('Join failed: ' + (r.message || 'unknown'))
+            }
+          } else if (msg.type === 'buyResult') {
+            const r = msg.payload
+            // simple user feedback
+            if (r.success) toast.success('Property bought!')
+            else toast.error('Buy failed: ' + r.message)
+          } else if (msg.type === 'rollResult') {
+            const r = msg.payload
+            if (r && typeof r.dice === 'number') setLastDice(r.dice)
           }
-        } else if (msg.type === 'buyResult') {
-          const r = msg.payload
-          // simple user feedback
-          if (r.success) toast.success('Property bought!')
-          else toast.error('Buy failed: ' + r.message)
-        } else if (msg.type === 'rollResult') {
-          const r = msg.payload
-          if (r && typeof r.dice === 'number') setLastDice(r.dice)
         }
       } catch (e) {
         console.error('Invalid message', e)
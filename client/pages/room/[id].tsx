@@ -5,6 +5,7 @@ import DebugPanel from '../../components/DebugPanel'
 import { toast } from 'react-toastify'
 import { useConfirm } from '../../components/ConfirmProvider'
 import { useAuth } from '../../context/AuthContext'
+import { loadResumeToken, reduceRoomState, RoomState, saveResumeToken } from '../../data/roomState'
 
 export default function RoomPage() {
   const router = useRouter()
@@ -19,6 +20,9 @@ export default function RoomPage() {
   const [started, setStarted] = useState(false)
   const [lastWsEvent, setLastWsEvent] = useState<string | undefined>(undefined)
   const wsRef = useRef<WebSocket | null>(null)
+  const roomRef = useRef<RoomState | null>(null)
+  const nameRef = useRef('Guest')
+  nameRef.current = currentUser || 'Guest'
   const confirm = (() => { try { return useConfirm() } catch { return null } })()
 
   // Redirect to board when game starts
@@ -34,6 +38,8 @@ export default function RoomPage() {
   useEffect(() => {
     if (!id) return
     let closedByUs = false
+    // kept across reconnects: a resumed session only gets the patches since this version
+    roomRef.current = null
     async function connect() {
       let t = null
       try {
@@ -62,22 +68,36 @@ export default function RoomPage() {
       
       socket.addEventListener('message', (ev) => {
         try {
-          const msg = JSON.parse(ev.data)
-          if (msg.type === 'state') {
-            // Always update players from WebSocket state (including bots)
-            if (msg.payload.players) {
-              setPlayers(msg.payload.players)
+          const frame = JSON.parse(ev.data)
+          // a command's result comes in the same frame as the state change it caused
+          for (const msg of frame.result ? [frame, frame.result] : [frame]) {
+            if (msg.type === 'state' || msg.type === 'patch') {
+              const r = reduceRoomState(roomRef.current, msg)
+              if (r.resync) socket.send(JSON.stringify({ type: 'resync' }))
+              if (!r.state || r.state === roomRef.current) continue
+              roomRef.current = r.state
+              const state = r.state
+              // Always update players from WebSocket state (including bots)
+              if (state.players) {
+                setPlayers(state.players)
+              }
+              setProperties(state.properties || [])
+              setStarted(!!state.started)
+              if (state.adminId) {
+                setAdminId(state.adminId)
+              }
+              if (state.startAmount !== null && state.startAmount !== undefined) {
+                setStartAmount(state.startAmount)
+              }
+            } else if (msg.type === 'assigned') {
+              setMyId(msg.payload.id)
+              saveResumeToken(msg.payload.roomId, msg.payload.resumeToken)
+            } else if (msg.type === 'resumeResult' && !msg.payload.success) {
+              // the seat is gone, join like a new player
+              saveResumeToken(id as string, null)
+              roomRef.current = null
+              socket.send(JSON.stringify({ type: 'join', payload: { name: nameRef.current } }))
             }
-            setProperties(msg.payload.properties || [])
-            setStarted(!!msg.payload.started)
-            if (msg.payload.adminId) {
-              setAdminId(msg.payload.adminId)
-            }
-            if (msg.payload.startAmount !== null && msg.payload.startAmount !== undefined) {
-              setStartAmount(msg.payload.startAmount)
-            }
-          } else if (msg.type === 'assigned') {
-            setMyId(msg.payload.id)
           }
         } catch (e) { console.error('invalid msg', e) }
       })
@@ -107,12 +127,17 @@ export default function RoomPage() {
     }
   }, [id, tryRefreshIfNeeded])
 
-  // send join when ws opens
+  // send join when ws opens, or resume the seat this tab already had
   useEffect(() => {
     if (!ws) return
     const handler = (ev: Event) => {
       try { 
         const socket = ws
+        const token = id ? loadResumeToken(id) : null
+        if (token) {
+          socket.send(JSON.stringify({ type: 'resume', payload: { token, version: roomRef.current ? roomRef.current.version : -1 } }))
+          return
+        }
         const name = currentUser || 'Guest'
         socket.send(JSON.stringify({ type: 'join', payload: { name } }))
       } catch (e) { 
@@ -121,7 +146,7 @@ export default function RoomPage() {
     }
     ws.addEventListener('open', handler)
     return () => { try { ws.removeEventListener('open', handler) } catch {} }
-  }, [ws, currentUser])
+  }, [ws, currentUser, id])
 
   // navigate to board when started
   useEffect(() => {
@@ -0,0 +1,22 @@
+package com.example.monopoly.bot;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.example.monopoly.game.RoomState;
+
+/**
+ * How a bot plays its turn. The room has already rolled for the bot; a
+ * strategy only makes the decisions that follow. It may take its time on
+ * another thread: the answer is applied on the room's mailbox once it
+ * completes, after checking it is still allowed then, so a slow strategy
+ * never holds up the room or any other room.
+ */
+public interface BotStrategy {
+
+    /**
+     * Whether the bot in {@code seat} buys the tile it stands on in {@code st},
+     * which is unowned and affordable. {@code st} is a published version and
+     * must not be modified.
+     */
+    CompletableFuture<Boolean> shouldBuy(RoomState st, int seat);
+}
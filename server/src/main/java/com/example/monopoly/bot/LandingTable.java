@@ -0,0 +1,115 @@
+package com.example.monopoly.bot;
+
+import com.example.monopoly.game.Board;
+
+/**
+ * Where a token on a board goes, worked out once per board from the Markov
+ * chain of its moves: for every start tile and every number of turns up to the
+ * point where the start no longer matters, the expected number of landings on
+ * every tile, and past that point the steady-state landing rate. Either way a
+ * lookup is O(1).
+ *
+ * <p>The chain follows the server's rules: one die, no doubles, and nothing
+ * sends a player to jail (the Go To Jail square is only a name), so each turn
+ * moves one to six tiles ahead with equal odds. Should jail ever be enforced,
+ * only {@link #transitions} changes.
+ */
+final class LandingTable {
+    // table depth stops once every start is within this fraction of the steady state
+    private static final double MIXED = 0.01;
+    private static final int MAX_DEPTH = 256;
+
+    private final int tiles;
+    private final int depth;
+    private final float[] landings; // [(k - 1) * n * n + from * n + to]: expected landings on to in k turns from from
+    private final double[] steady;
+
+    private LandingTable(int tiles, int depth, float[] landings, double[] steady) {
+        this.tiles = tiles;
+        this.depth = depth;
+        this.landings = landings;
+        this.steady = steady;
+    }
+
+    static LandingTable of(Board board) {
+        int n = board.size();
+        double[][] step = transitions(n);
+        double[] steady = steadyState(step);
+
+        float[] table = new float[MAX_DEPTH * n * n];
+        double[][] dist = new double[n][n];   // dist[from]: where a token from from is after k turns
+        double[][] total = new double[n][n];  // total[from]: landings so far
+        for (int from = 0; from < n; from++) dist[from][from] = 1;
+        int k = 0;
+        boolean mixed = false;
+        while (k < MAX_DEPTH && !mixed) {
+            mixed = true;
+            for (int from = 0; from < n; from++) {
+                dist[from] = multiply(dist[from], step);
+                for (int to = 0; to < n; to++) {
+                    total[from][to] += dist[from][to];
+                    table[k * n * n + from * n + to] = (float) total[from][to];
+                    if (Math.abs(dist[from][to] - steady[to]) > MIXED * steady[to]) mixed = false;
+                }
+            }
+            k++;
+        }
+        float[] landings = new float[k * n * n];
+        System.arraycopy(table, 0, landings, 0, landings.length);
+        return new LandingTable(n, k, landings, steady);
+    }
+
+    /** Expected number of times a token on {@code from} lands on {@code to} in its next {@code turns} turns. */
+    double landings(int from, int to, int turns) {
+        if (turns <= 0) return 0;
+        int k = Math.min(turns, depth);
+        double within = landings[(k - 1) * tiles * tiles + from * tiles + to];
+        return within + (turns - k) * steady[to];
+    }
+
+    /** Long-run share of turns that end on {@code tile}. */
+    double steady(int tile) {
+        return steady[tile];
+    }
+
+    /** Turns after which the start tile no longer matters (to within 1%). */
+    int depth() {
+        return depth;
+    }
+
+    // P[from][to] for one turn
+    private static double[][] transitions(int n) {
+        double[][] p = new double[n][n];
+        for (int from = 0; from < n; from++) {
+            for (int d = 1; d <= 6; d++) p[from][(from + d) % n] += 1.0 / 6;
+        }
+        return p;
+    }
+
+    // power iteration from GO; the chain is aperiodic, so this converges
+    private static double[] steadyState(double[][] step) {
+        int n = step.length;
+        double[] dist = new double[n];
+        dist[0] = 1;
+        for (int i = 0; i < 100_000; i++) {
+            double[] next = multiply(dist, step);
+            double change = 0;
+            for (int t = 0; t < n; t++) change += Math.abs(next[t] - dist[t]);
+            dist = next;
+            if (change < 1e-12) break;
+        }
+        return dist;
+    }
+
+    private static double[] multiply(double[] dist, double[][] step) {
+        int n = dist.length;
+        double[] next = new double[n];
+        for (int from = 0; from < n; from++) {
+            double p = dist[from];
+            if (p == 0) continue;
+            double[] row = step[from];
+            for (int to = 0; to < n; to++) next[to] += p * row[to];
+        }
+        return next;
+    }
+}
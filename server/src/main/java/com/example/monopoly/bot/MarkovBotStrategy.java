@@ -0,0 +1,52 @@
+package com.example.monopoly.bot;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.monopoly.game.Board;
+import com.example.monopoly.game.GameRules;
+import com.example.monopoly.game.RoomState;
+
+/**
+ * Values a tile from precomputed landing tables instead of simulating: buying
+ * pays if the rent opponents are expected to land on within the next
+ * {@code game.bots.markov.horizon} rounds (how long the bot expects the game
+ * to go on), starting from where they stand, beats the half of the price a
+ * mortgage would not give back. That is one
+ * table lookup per opponent, so the answer is ready at once and costs next to
+ * nothing; the tables are built for every board when the bean is created.
+ * Selected with {@code game.bots.strategy=markov}.
+ *
+ * <p>Rent here is a tenth of the price whoever owns the rest of the colour
+ * group, so the value of a tile does not depend on the ownership pattern
+ * beyond it being unowned.
+ */
+@Component
+@ConditionalOnProperty(name = "game.bots.strategy", havingValue = "markov")
+public class MarkovBotStrategy implements BotStrategy {
+    private final Map<Board, LandingTable> tables;
+    private final int horizon;
+
+    public MarkovBotStrategy(@Value("${game.bots.markov.horizon:100}") int horizon) {
+        this.tables = Map.of(Board.CLASSIC, LandingTable.of(Board.CLASSIC), Board.TILES, LandingTable.of(Board.TILES));
+        this.horizon = Math.max(1, horizon);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> shouldBuy(RoomState st, int seat) {
+        LandingTable table = tables.get(st.board);
+        int tile = st.pos[seat] % st.board.size();
+        int price = st.board.cost(tile);
+        double rent = GameRules.rent(st.board, tile);
+        double income = 0;
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            if (s == seat || !st.isSeated(s)) continue;
+            income += table.landings(st.pos[s] % st.board.size(), tile, horizon) * rent;
+        }
+        return CompletableFuture.completedFuture(income > price / 2.0);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.monopoly.bot;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.monopoly.game.Board;
+import com.example.monopoly.game.GameRules;
+import com.example.monopoly.game.RoomState;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Decides by playing the rest of the game out. For a buy it runs pairs of
+ * rollouts from the current position, one with the tile bought and one
+ * without, on the same dice, for {@code game.bots.mc.horizon} rounds under the
+ * server's rules (one die, rent a tenth of the price when the tenant can pay),
+ * with every player buying what it can afford seven times out of ten. A
+ * rollout is scored as what the bot could raise (cash plus half the price of
+ * what it owns, as a mortgage would) less the best opponent's, so a tile is
+ * only worth buying if it earns back the other half in rent, or keeps it from
+ * an opponent, within the horizon. The bot buys if buying scores higher on
+ * average.
+ *
+ * <p>Rollouts run on a ForkJoin pool of their own ({@code game.bots.mc.threads},
+ * default half the cores), never on room workers, and stop at the decision's
+ * time budget ({@code game.bots.mc.budget-ms}) however many have finished, so
+ * a busy pool makes bots weaker rather than rooms slower. Each pool thread
+ * keeps one rollout state and reuses it: a rollout allocates nothing.
+ * Selected with {@code game.bots.strategy=montecarlo} (the default).
+ */
+@Component
+@ConditionalOnProperty(name = "game.bots.strategy", havingValue = "montecarlo", matchIfMissing = true)
+public class MonteCarloBotStrategy implements BotStrategy {
+    // enough pairs for a clear answer on a quiet server; the budget usually ends a decision first
+    private static final int MAX_PAIRS = 4096;
+
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+    private final int horizon;
+    private final ThreadLocal<Rollout> rollouts = ThreadLocal.withInitial(Rollout::new);
+    private final DistributionSummary pairs;
+
+    public MonteCarloBotStrategy(MeterRegistry registry,
+                                 @Value("${game.bots.mc.budget-ms:40}") long budgetMs,
+                                 @Value("${game.bots.mc.horizon:30}") int horizon,
+                                 @Value("${game.bots.mc.threads:0}") int threads) {
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ForkJoinPool(n, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("bot-rollout-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, true);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, budgetMs));
+        this.horizon = Math.max(1, horizon);
+        this.pairs = DistributionSummary.builder("game.bots.mc.rollouts")
+                .description("rollout pairs behind one bot decision").register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Boolean> shouldBuy(RoomState st, int seat) {
+        Position p = new Position(st, seat, horizon);
+        long deadline = System.nanoTime() + budgetNanos;
+        int parts = pool.getParallelism();
+        long seed = ThreadLocalRandom.current().nextLong();
+        CompletableFuture<long[]>[] results = new CompletableFuture[parts];
+        for (int i = 0; i < parts; i++) {
+            long partSeed = seed + i * 0x632BE59BD9B4E019L;
+            results[i] = CompletableFuture.supplyAsync(() -> rollouts.get().run(p, deadline, MAX_PAIRS / parts, partSeed), pool);
+        }
+        return CompletableFuture.allOf(results).thenApply(v -> {
+            long gain = 0, n = 0;
+            for (CompletableFuture<long[]> r : results) {
+                long[] part = r.join();
+                gain += part[0];
+                n += part[1];
+            }
+            pairs.record(n);
+            // no time for a single rollout: keep half the cash in hand
+            return n == 0 ? p.price * 2 <= p.money[p.bot] : gain > 0;
+        });
+    }
+
+    /** The position a decision starts from, copied once out of the room state and shared by all rollouts. */
+    static final class Position {
+        final int players;
+        final int bot;       // index of the deciding bot; player 0 moves first
+        final int[] money;
+        final int[] pos;
+        final int[] owner;   // per tile: player index, -1 for the bank, -2 for someone no longer seated
+        final int[] cost;
+        final int[] rent;
+        final boolean[] buyable;
+        final int tile;
+        final int price;
+        final int turns;
+
+        Position(RoomState st, int seat, int rounds) {
+            int[] order = new int[RoomState.MAX_SEATS];
+            int n = 0;
+            // the turn has already passed on after the bot's roll, so play resumes at turnSeat
+            int first = st.turnSeat >= 0 && st.isSeated(st.turnSeat) ? st.turnSeat : seat;
+            for (int i = 0; i < RoomState.MAX_SEATS; i++) {
+                int s = (first + i) % RoomState.MAX_SEATS;
+                if (st.isSeated(s)) order[n++] = s;
+            }
+            this.players = n;
+            this.money = new int[n];
+            this.pos = new int[n];
+            int b = 0;
+            for (int i = 0; i < n; i++) {
+                money[i] = st.money[order[i]];
+                pos[i] = st.pos[order[i]];
+                if (order[i] == seat) b = i;
+            }
+            this.bot = b;
+            Board board = st.board;
+            int tiles = board.size();
+            this.owner = new int[tiles];
+            this.cost = new int[tiles];
+            this.rent = new int[tiles];
+            this.buyable = new boolean[tiles];
+            for (int t = 0; t < tiles; t++) {
+                cost[t] = board.cost(t);
+                rent[t] = GameRules.rent(board, t);
+                buyable[t] = board.buyable(t);
+                int o = st.owners[t] & 0xFF;
+                if (o == 0) {
+                    owner[t] = -1;
+                } else {
+                    int s = st.seatOf(st.ownerIds.get(o - 1));
+                    int idx = -2;
+                    for (int i = 0; i < n; i++) if (order[i] == s) idx = i;
+                    owner[t] = idx;
+                }
+            }
+            this.tile = st.pos[seat] % tiles;
+            this.price = board.cost(tile);
+            this.turns = rounds * n;
+        }
+    }
+
+    /** One thread's scratch state, reset from the position before every rollout. */
+    static final class Rollout {
+        int[] money = new int[RoomState.MAX_SEATS];
+        int[] pos = new int[RoomState.MAX_SEATS];
+        int[] owner = new int[64];
+        long rng;
+
+        /** Play pairs until the deadline or {@code max}; returns {summed score gain of buying, pairs}. */
+        long[] run(Position p, long deadline, int max, long seed) {
+            if (owner.length < p.owner.length) owner = new int[p.owner.length];
+            long gain = 0;
+            int n = 0;
+            while (n < max && System.nanoTime() < deadline) {
+                long s = seed + n * 0x9E3779B97F4A7C15L;
+                gain += play(p, true, s) - play(p, false, s);
+                n++;
+            }
+            return new long[] { gain, n };
+        }
+
+        long play(Position p, boolean buy, long seed) {
+            int players = p.players;
+            int tiles = p.owner.length;
+            System.arraycopy(p.money, 0, money, 0, players);
+            System.arraycopy(p.pos, 0, pos, 0, players);
+            System.arraycopy(p.owner, 0, owner, 0, tiles);
+            rng = seed;
+            if (buy) {
+                owner[p.tile] = p.bot;
+                money[p.bot] -= p.price;
+            }
+            for (int turn = 0; turn < p.turns; turn++) {
+                int me = turn % players;
+                int at = (pos[me] + 1 + (int) ((next() >>> 1) % 6)) % tiles;
+                pos[me] = at;
+                int o = owner[at];
+                int c = p.cost[at];
+                if (o == -1) {
+                    if (p.buyable[at] && money[me] >= c && (next() >>> 1) % 100 < 70) {
+                        owner[at] = me;
+                        money[me] -= c;
+                    }
+                } else if (o >= 0 && o != me) {
+                    int rent = p.rent[at];
+                    if (money[me] >= rent) {
+                        money[me] -= rent;
+                        money[o] += rent;
+                    }
+                }
+            }
+            return score(p);
+        }
+
+        // the bot's liquidation value less the best opponent's
+        private long score(Position p) {
+            long best = Long.MIN_VALUE, mine = 0;
+            for (int i = 0; i < p.players; i++) {
+                long worth = money[i];
+                for (int t = 0; t < p.owner.length; t++) if (owner[t] == i) worth += p.cost[t] / 2;
+                if (i == p.bot) mine = worth;
+                else best = Math.max(best, worth);
+            }
+            return best == Long.MIN_VALUE ? mine : mine - best;
+        }
+
+        // SplitMix64
+        private long next() {
+            long z = (rng += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.monopoly.bot;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.monopoly.game.RoomRandom;
+import com.example.monopoly.game.RoomState;
+
+/**
+ * The original bot: buys whatever it can afford seven times out of ten.
+ * ({@code game.bots.strategy=random}) The coin is drawn from a stream split
+ * off the room's dice at the current roll, so a replayed game buys alike.
+ */
+@Component
+@ConditionalOnProperty(name = "game.bots.strategy", havingValue = "random")
+public class RandomBotStrategy implements BotStrategy {
+    private static final long BUY_STREAM = 1;
+
+    @Override
+    public CompletableFuture<Boolean> shouldBuy(RoomState st, int seat) {
+        long coin = RoomRandom.next(RoomRandom.split(st.seed, BUY_STREAM), st.rolls);
+        return CompletableFuture.completedFuture(Long.remainderUnsigned(coin, 100) < 70);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.monopoly.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.example.monopoly.model.Lobby;
+import com.example.monopoly.model.User;
+import com.example.monopoly.repository.InMemoryRepository;
+import com.example.monopoly.repository.LobbyRepository;
+import com.example.monopoly.repository.UserRepository;
+
+/**
+ * The {@code memory} profile: lobbies and users live in maps instead of
+ * MongoDB and are gone on restart (MongoDB is switched off in
+ * application-memory.properties). For load tests and for running the server
+ * without a database; rooms still go to the journal as usual.
+ */
+@Configuration
+@Profile("memory")
+public class MemoryStoreConfig {
+
+    @Bean
+    public LobbyRepository lobbyRepository() {
+        return InMemoryRepository.of(LobbyRepository.class, Lobby.class);
+    }
+
+    @Bean
+    public UserRepository userRepository() {
+        return InMemoryRepository.of(UserRepository.class, User.class);
+    }
+}
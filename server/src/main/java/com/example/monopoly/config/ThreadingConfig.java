@@ -0,0 +1,32 @@
+package com.example.monopoly.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in virtual threads ({@code game.threads.virtual=true}, Java 21+): Tomcat
+ * then reads requests and WebSocket frames on virtual threads instead of its
+ * platform worker pool. Room workers and WebSocket senders pick the same
+ * setting up themselves.
+ */
+@Configuration
+public class ThreadingConfig {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "game.threads.virtual", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadConnector() {
+        return handler -> {
+            if (!VirtualThreads.available()) {
+                log.warn("game.threads.virtual is set but this runtime has no virtual threads, Tomcat keeps its worker pool");
+                return;
+            }
+            handler.setExecutor(VirtualThreads.newPerTaskExecutor("http-"));
+            log.info("Tomcat connector runs on virtual threads");
+        };
+    }
+}
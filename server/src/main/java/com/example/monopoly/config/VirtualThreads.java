@@ -0,0 +1,61 @@
+package com.example.monopoly.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads when the server runs on Java 21+. The build targets Java 17,
+ * so the API is looked up reflectively; on older runtimes {@link #available()}
+ * is false and callers keep their platform-thread executors.
+ */
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method PER_TASK;
+
+    static {
+        Method ofVirtual = null, name = null, factory = null, perTask = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        PER_TASK = perTask;
+    }
+
+    private VirtualThreads() {}
+
+    public static boolean available() {
+        return OF_VIRTUAL != null;
+    }
+
+    /** Thread factory for virtual threads named {@code prefix0}, {@code prefix1}, ... */
+    public static ThreadFactory factory(String prefix) {
+        if (!available()) throw new IllegalStateException("virtual threads need Java 21+");
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot create virtual thread factory", e);
+        }
+    }
+
+    /** Executor that starts a new virtual thread for every task. */
+    public static ExecutorService newPerTaskExecutor(String prefix) {
+        try {
+            return (ExecutorService) PER_TASK.invoke(null, factory(prefix));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot create virtual thread executor", e);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 import com.example.monopoly.security.JwtUtil;
+import com.example.monopoly.ws.BinaryProtocol;
 import com.example.monopoly.ws.GameWebSocketHandler;
 
 @Configuration
@@ -70,6 +71,9 @@ public class WebSocketConfig implements WebSocketConfigurer {
             }
         };
 
+        // clients pick the compact binary protocol by offering its subprotocol; JSON text stays the default
+        dh.setSupportedProtocols(BinaryProtocol.SUBPROTOCOL, BinaryProtocol.JSON_SUBPROTOCOL);
+
         registry.addHandler(handler, "/game").setHandshakeHandler(dh).setAllowedOrigins("*");
     }
 }
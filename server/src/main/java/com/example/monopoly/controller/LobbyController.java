@@ -1,18 +1,21 @@
 package com.example.monopoly.controller;
 
 import java.security.Principal;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.monopoly.model.Lobby;
@@ -112,6 +115,47 @@ public class LobbyController {
                 .orElse(ResponseEntity.status(404).body(Map.of("error", "lobby_not_found")));
     }
     
+    // live game state of the room, the same JSON the WebSocket "state" frame carries
+    @GetMapping("/{code}/state")
+    public ResponseEntity<?> getState(@PathVariable String code) {
+        try {
+            byte[] state = gameService.getStateJson(code);
+            if (state == null) return ResponseEntity.status(404).body(Map.of("error", "room_not_found"));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(state);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "failed_to_read_state", "message", e.getMessage()));
+        }
+    }
+
+    // replays the room's recorded moves with its own dice and reports whether they reproduce the game
+    @GetMapping("/{code}/replay")
+    public ResponseEntity<?> replay(@PathVariable String code) {
+        try {
+            Map<String, Object> result = gameService.replay(code);
+            if (result == null) return ResponseEntity.status(404).body(Map.of("error", "room_not_found"));
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "failed_to_replay", "message", String.valueOf(e.getMessage())));
+        }
+    }
+
+    // the room as it was at a past version or after a given number of turns, from its history
+    @GetMapping("/{code}/state/at")
+    public ResponseEntity<?> getStateAt(@PathVariable String code,
+                                        @RequestParam(required = false) Long version,
+                                        @RequestParam(required = false) Long turn) {
+        if ((version == null) == (turn == null) || (version != null && version < 0) || (turn != null && turn < 0)) {
+            return ResponseEntity.status(400).body(Map.of("error", "version_or_turn_required"));
+        }
+        try {
+            Map<String, Object> state = gameService.stateAt(code, version, turn);
+            if (state == null) return ResponseEntity.status(404).body(Map.of("error", "state_not_found"));
+            return ResponseEntity.ok(state);
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "failed_to_read_state", "message", String.valueOf(e.getMessage())));
+        }
+    }
+
     @PostMapping("/{code}/join")
     public ResponseEntity<?> joinLobby(@PathVariable String code, Principal principal) {
         if (principal == null) {
@@ -212,6 +256,56 @@ public class LobbyController {
         }
     }
     
+    @PostMapping("/{code}/bot-think-ms")
+    public ResponseEntity<?> setBotThinkMs(@PathVariable String code, @RequestBody Map<String, Integer> body, Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "authentication_required"));
+        }
+        
+        User admin = userService.findByEmail(principal.getName())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        
+        Integer botThinkMs = body.get("botThinkMs"); // null resets to the server default
+        if (botThinkMs != null && (botThinkMs < 0 || botThinkMs > 30000)) {
+            return ResponseEntity.status(400).body(Map.of("error", "invalid_bot_think_ms"));
+        }
+        
+        try {
+            lobbyService.updateBotThinkMs(code, botThinkMs, admin.getUsername());
+            gameService.setBotThinkMs(code, botThinkMs != null ? botThinkMs : -1);
+            return ResponseEntity.ok(Collections.singletonMap("botThinkMs", botThinkMs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", "lobby_not_found"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{code}/turn-timeout-ms")
+    public ResponseEntity<?> setTurnTimeoutMs(@PathVariable String code, @RequestBody Map<String, Integer> body, Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "authentication_required"));
+        }
+        
+        User admin = userService.findByEmail(principal.getName())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        
+        Integer turnTimeoutMs = body.get("turnTimeoutMs"); // null resets to the server default, 0 turns the clock off
+        if (turnTimeoutMs != null && turnTimeoutMs != 0 && (turnTimeoutMs < 5000 || turnTimeoutMs > 3600000)) {
+            return ResponseEntity.status(400).body(Map.of("error", "invalid_turn_timeout_ms"));
+        }
+        
+        try {
+            lobbyService.updateTurnTimeoutMs(code, turnTimeoutMs, admin.getUsername());
+            gameService.setTurnTimeoutMs(code, turnTimeoutMs != null ? turnTimeoutMs : -1);
+            return ResponseEntity.ok(Collections.singletonMap("turnTimeoutMs", turnTimeoutMs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", "lobby_not_found"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(403).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @PostMapping("/{code}/start")
     public ResponseEntity<?> startGame(@PathVariable String code, Principal principal) {
         if (principal == null) {
@@ -0,0 +1,132 @@
+package com.example.monopoly.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable board layout: tile names, prices and kinds. There is one instance
+ * per layout for the whole JVM and every room points at it; what a room owns
+ * itself is only the per-tile owner array (see {@link RoomState#owners}).
+ */
+public final class Board {
+    public enum TileType { GO, PROPERTY, RAILROAD, UTILITY, TAX, CHANCE, COMMUNITY_CHEST, JAIL, FREE_PARKING, GO_TO_JAIL }
+
+    public static final Board CLASSIC = classic();
+    public static final Board TILES = tiles();
+
+    private final String key;
+    private final String[] names;
+    private final int[] costs;
+    private final TileType[] types;
+
+    private Board(String key, String[] names, int[] costs, TileType[] types) {
+        this.key = key;
+        this.names = names;
+        this.costs = costs;
+        this.types = types;
+    }
+
+    /** Layout for the board name carried by {@link GameEvent.RoomCreated}. */
+    public static Board forKey(String key) {
+        return TILES.key.equals(key) ? TILES : CLASSIC;
+    }
+
+    public String key() { return key; }
+
+    public int size() { return names.length; }
+
+    public String name(int tile) { return names[tile]; }
+
+    public int cost(int tile) { return costs[tile]; }
+
+    public TileType type(int tile) { return types[tile]; }
+
+    /** Whether the tile can be owned: streets, railroads and utilities. */
+    public boolean buyable(int tile) {
+        TileType t = types[tile];
+        return t == TileType.PROPERTY || t == TileType.RAILROAD || t == TileType.UTILITY;
+    }
+
+    private static Board tiles() {
+        int n = 36;
+        String[] names = new String[n];
+        int[] costs = new int[n];
+        TileType[] types = new TileType[n];
+        for (int j = 0; j < n; j++) {
+            names[j] = "Tile " + j;
+            costs[j] = 100 + (j % 12) * 25;
+            types[j] = TileType.PROPERTY;
+        }
+        return new Board("tiles", names, costs, types);
+    }
+
+    private static Board classic() {
+        Builder b = new Builder();
+        // Bottom row (RIGHT TO LEFT): positions 0-10
+        b.add("GO", 0, TileType.GO);
+        b.add("Mediterranean Avenue", 60, TileType.PROPERTY);
+        b.add("Community Chest", 0, TileType.COMMUNITY_CHEST);
+        b.add("Baltic Avenue", 60, TileType.PROPERTY);
+        b.add("Income Tax", 200, TileType.TAX);
+        b.add("Reading Railroad", 200, TileType.RAILROAD);
+        b.add("Oriental Avenue", 100, TileType.PROPERTY);
+        b.add("Chance", 0, TileType.CHANCE);
+        b.add("Vermont Avenue", 100, TileType.PROPERTY);
+        b.add("Connecticut Avenue", 120, TileType.PROPERTY);
+        b.add("Just Visiting", 0, TileType.JAIL);
+
+        // Left column (BOTTOM TO TOP): positions 11-19
+        b.add("St. Charles Place", 140, TileType.PROPERTY);
+        b.add("Electric Company", 150, TileType.UTILITY);
+        b.add("States Avenue", 140, TileType.PROPERTY);
+        b.add("Virginia Avenue", 160, TileType.PROPERTY);
+        b.add("Pennsylvania Railroad", 200, TileType.RAILROAD);
+        b.add("St. James Place", 180, TileType.PROPERTY);
+        b.add("Community Chest", 0, TileType.COMMUNITY_CHEST);
+        b.add("Tennessee Avenue", 180, TileType.PROPERTY);
+        b.add("New York Avenue", 200, TileType.PROPERTY);
+
+        // Top row (LEFT TO RIGHT): positions 20-30
+        b.add("Free Parking", 0, TileType.FREE_PARKING);
+        b.add("Kentucky Avenue", 220, TileType.PROPERTY);
+        b.add("Chance", 0, TileType.CHANCE);
+        b.add("Indiana Avenue", 220, TileType.PROPERTY);
+        b.add("Illinois Avenue", 240, TileType.PROPERTY);
+        b.add("B&O Railroad", 200, TileType.RAILROAD);
+        b.add("Atlantic Avenue", 260, TileType.PROPERTY);
+        b.add("Ventnor Avenue", 260, TileType.PROPERTY);
+        b.add("Water Works", 150, TileType.UTILITY);
+        b.add("Marvin Gardens", 280, TileType.PROPERTY);
+        b.add("Go To Jail", 0, TileType.GO_TO_JAIL);
+
+        // Right column (TOP TO BOTTOM): positions 31-39
+        b.add("Pacific Avenue", 300, TileType.PROPERTY);
+        b.add("North Carolina Avenue", 300, TileType.PROPERTY);
+        b.add("Community Chest", 0, TileType.COMMUNITY_CHEST);
+        b.add("Pennsylvania Avenue", 320, TileType.PROPERTY);
+        b.add("Short Line Railroad", 200, TileType.RAILROAD);
+        b.add("Chance", 0, TileType.CHANCE);
+        b.add("Park Place", 350, TileType.PROPERTY);
+        b.add("Luxury Tax", 100, TileType.TAX);
+        b.add("Boardwalk", 400, TileType.PROPERTY);
+        return b.build("classic");
+    }
+
+    private static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> costs = new ArrayList<>();
+        private final List<TileType> types = new ArrayList<>();
+
+        void add(String name, int cost, TileType type) {
+            names.add(name);
+            costs.add(cost);
+            types.add(type);
+        }
+
+        Board build(String key) {
+            int[] c = new int[costs.size()];
+            for (int i = 0; i < c.length; i++) c[i] = costs.get(i);
+            return new Board(key, names.toArray(new String[0]), c, types.toArray(new TileType[0]));
+        }
+    }
+}
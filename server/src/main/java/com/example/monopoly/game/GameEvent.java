@@ -0,0 +1,61 @@
+package com.example.monopoly.game;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * A single change to a room. GameService validates a command, emits one or more
+ * events and applies them; the same events are appended to the room journal and
+ * replayed on startup, so applying an event must never depend on anything but
+ * the event and the room it is applied to.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "t")
+@JsonSubTypes({
+    @JsonSubTypes.Type(value = GameEvent.RoomCreated.class, name = "RoomCreated"),
+    @JsonSubTypes.Type(value = GameEvent.PlayerJoined.class, name = "PlayerJoined"),
+    @JsonSubTypes.Type(value = GameEvent.PlayerLeft.class, name = "PlayerLeft"),
+    @JsonSubTypes.Type(value = GameEvent.Kicked.class, name = "Kicked"),
+    @JsonSubTypes.Type(value = GameEvent.AdminChanged.class, name = "AdminChanged"),
+    @JsonSubTypes.Type(value = GameEvent.ReadyChanged.class, name = "ReadyChanged"),
+    @JsonSubTypes.Type(value = GameEvent.StartAmountChanged.class, name = "StartAmountChanged"),
+    @JsonSubTypes.Type(value = GameEvent.Started.class, name = "Started"),
+    @JsonSubTypes.Type(value = GameEvent.Rolled.class, name = "Rolled"),
+    @JsonSubTypes.Type(value = GameEvent.TurnSkipped.class, name = "TurnSkipped"),
+    @JsonSubTypes.Type(value = GameEvent.Bought.class, name = "Bought"),
+    @JsonSubTypes.Type(value = GameEvent.RentPaid.class, name = "RentPaid"),
+    @JsonSubTypes.Type(value = GameEvent.Snapshot.class, name = "Snapshot")
+})
+public sealed interface GameEvent {
+
+    // board is "classic" (40 tiles) or "tiles" (generated 36 tile lobby board); seed keys the room's dice
+    // (see RoomRandom), 0 in journals written before rooms had one
+    record RoomCreated(String board, String adminPrincipal, int startAmount, long seed) implements GameEvent {}
+
+    record PlayerJoined(String playerId, String name, int money, boolean bot) implements GameEvent {}
+
+    record PlayerLeft(String playerId) implements GameEvent {}
+
+    record Kicked(String playerId) implements GameEvent {}
+
+    record AdminChanged(String adminId, String adminPrincipal) implements GameEvent {}
+
+    record ReadyChanged(String playerId, boolean ready) implements GameEvent {}
+
+    record StartAmountChanged(int amount) implements GameEvent {}
+
+    record Started() implements GameEvent {}
+
+    record Rolled(String playerId, int dice, boolean bot) implements GameEvent {}
+
+    // the player's turn clock ran out; play passes on without a move
+    record TurnSkipped(String playerId) implements GameEvent {}
+
+    record Bought(String playerId, int propertyId, int price) implements GameEvent {}
+
+    record RentPaid(String tenantId, String landlordId, int propertyId, int amount) implements GameEvent {}
+
+    // full room image written when the journal is compacted; replaces everything before it
+    record Snapshot(Map<String, Object> room) implements GameEvent {}
+}
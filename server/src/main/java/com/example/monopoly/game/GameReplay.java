@@ -0,0 +1,48 @@
+package com.example.monopoly.game;
+
+import java.util.List;
+
+/**
+ * Plays a recorded game again. Every move is re-executed against the rules
+ * from the starting state; a roll is not copied from the record but rolled
+ * again from the room's own stream ({@link RoomRandom}), so a replay that
+ * gets to the end has reproduced the game exactly, dice included. A replay
+ * that does not names the first move that came out differently.
+ *
+ * <p>A room's journal is such a record, so real games can be turned into
+ * fixtures: keep the journal, replay it, compare.
+ */
+public final class GameReplay {
+    private GameReplay() {}
+
+    /** How a replay went: the state it ended in and the first move that did not reproduce, -1 if all did. */
+    public record Result(RoomState state, int moves, int divergedAt, String reason) {
+        public boolean reproduced() {
+            return divergedAt < 0;
+        }
+    }
+
+    /**
+     * Re-execute {@code moves} from a copy of {@code start}. Snapshot images are
+     * not moves; restore them into the start state first.
+     */
+    public static Result replay(RoomState start, List<GameEvent> moves) {
+        RoomState st = start.copy();
+        for (int i = 0; i < moves.size(); i++) {
+            GameEvent move = moves.get(i);
+            if (move instanceof GameEvent.Snapshot) {
+                return new Result(st, i, i, "snapshot image in the middle of the moves");
+            }
+            if (move instanceof GameEvent.Rolled r) {
+                int dice = RoomRandom.dice(st.seed, st.rolls);
+                if (dice != r.dice()) {
+                    return new Result(st, i, i, "roll " + st.rolls + " by " + r.playerId() + " was " + r.dice() + ", the room's dice give " + dice);
+                }
+                move = new GameEvent.Rolled(r.playerId(), dice, r.bot());
+            }
+            GameRules.apply(st, move);
+            st.seq++;
+        }
+        return new Result(st, moves.size(), -1, null);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.monopoly.game;
+
+import java.util.Map;
+
+/**
+ * What each event does to a room. The server applies every event it emits
+ * and replays its journal through here, and the headless simulator plays
+ * whole games through here, so both always run the same rules. Applying
+ * does not validate: deciding whether an event may happen is the caller's
+ * job, with {@link #refuseBuy} as the one rule for whether a buy may.
+ */
+public final class GameRules {
+    private GameRules() {}
+
+    /** Apply one event to a mutable room state. Snapshot images are restored by the caller. */
+    public static void apply(RoomState room, GameEvent event) {
+        if (event instanceof GameEvent.RoomCreated e) {
+            room.setBoard(Board.forKey(e.board()));
+            room.adminPrincipal = e.adminPrincipal();
+            room.startAmount = e.startAmount();
+            room.seed = e.seed();
+        } else if (event instanceof GameEvent.PlayerJoined e) {
+            if (room.seatOf(e.playerId()) >= 0) return;
+            int seat = room.takeSeat(e.playerId(), e.name(), e.money());
+            if (seat >= 0) room.setReady(seat, e.bot());
+        } else if (event instanceof GameEvent.PlayerLeft e) {
+            vacate(room, room.seatOf(e.playerId()));
+            // if admin left, assign new admin (first player) or null
+            if (e.playerId().equals(room.adminId)) room.adminId = firstPlayerId(room);
+        } else if (event instanceof GameEvent.Kicked e) {
+            vacate(room, room.seatOf(e.playerId()));
+            // ensure admin still valid
+            if (room.seatOf(room.adminId) < 0) room.adminId = firstPlayerId(room);
+        } else if (event instanceof GameEvent.AdminChanged e) {
+            room.adminId = e.adminId();
+            room.adminPrincipal = e.adminPrincipal();
+        } else if (event instanceof GameEvent.ReadyChanged e) {
+            int seat = room.seatOf(e.playerId());
+            if (seat < 0) return;
+            room.setReady(seat, e.ready());
+            // auto-start when 4 players present and all ready
+            if (room.playerCount() >= RoomState.MAX_SEATS && room.readyMask == room.seated) startGame(room);
+            if (!e.ready()) room.started = false;
+        } else if (event instanceof GameEvent.StartAmountChanged e) {
+            room.startAmount = e.amount();
+            for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+                if (room.isSeated(s)) room.money[s] = e.amount();
+            }
+        } else if (event instanceof GameEvent.Started) {
+            startGame(room);
+        } else if (event instanceof GameEvent.Rolled e) {
+            room.rolls++;
+            int seat = room.seatOf(e.playerId());
+            if (seat < 0) return;
+            room.pos[seat] = (room.pos[seat] + e.dice()) % room.board.size();
+            room.lastMove = e.bot()
+                ? Map.of("playerId", e.playerId(), "dice", e.dice(), "bot", true)
+                : Map.of("playerId", e.playerId(), "dice", e.dice());
+            // Advance to next player's turn
+            advanceTurn(room);
+            room.turns++;
+        } else if (event instanceof GameEvent.TurnSkipped e) {
+            if (room.seatOf(e.playerId()) != room.turnSeat) return;
+            advanceTurn(room);
+            room.turns++;
+        } else if (event instanceof GameEvent.Bought e) {
+            int seat = room.seatOf(e.playerId());
+            if (seat < 0 || e.propertyId() < 0 || e.propertyId() >= room.board.size()) return;
+            room.money[seat] -= e.price();
+            room.setOwner(e.propertyId(), e.playerId());
+        } else if (event instanceof GameEvent.RentPaid e) {
+            int tenant = room.seatOf(e.tenantId());
+            int landlord = room.seatOf(e.landlordId());
+            if (tenant >= 0) room.money[tenant] -= e.amount();
+            if (landlord >= 0) room.money[landlord] += e.amount();
+        }
+    }
+
+    /**
+     * Why the player in {@code seat} may not buy {@code tile} now, or null if they may:
+     * {@code no-player}, {@code not-buyable}, {@code already-owned} or {@code insufficient-funds}.
+     */
+    public static String refuseBuy(RoomState room, int seat, int tile) {
+        if (seat < 0) return "no-player";
+        if (tile < 0 || tile >= room.board.size() || !room.board.buyable(tile)) return "not-buyable";
+        if (room.ownerOf(tile) != null) return "already-owned";
+        if (room.money[seat] < room.board.cost(tile)) return "insufficient-funds";
+        return null;
+    }
+
+    /** Rent due for landing on someone else's tile. */
+    public static int rent(Board board, int tile) {
+        return board.cost(tile) / 10;
+    }
+
+    private static void startGame(RoomState room) {
+        room.started = true;
+        // Initialize turn to first player when starting
+        if (room.turnSeat < 0 && room.seated != 0) {
+            room.turnSeat = Integer.numberOfTrailingZeros(room.seated);
+        }
+    }
+
+    // Advance to next player's turn
+    private static void advanceTurn(RoomState room) {
+        if (room.seated == 0) return;
+        room.turnSeat = room.nextSeat(room.turnSeat);
+    }
+
+    // free a seat; if it was that player's turn, play passes on
+    private static void vacate(RoomState room, int seat) {
+        if (seat < 0) return;
+        room.leaveSeat(seat);
+        if (room.turnSeat == seat) room.turnSeat = room.nextSeat(seat);
+    }
+
+    private static String firstPlayerId(RoomState room) {
+        return room.seated == 0 ? null : room.seatIds[Integer.numberOfTrailingZeros(room.seated)];
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.monopoly.game;
+
+/**
+ * One line of a room journal: an event stamped with the room sequence number
+ * it produced. Replay skips records already covered by a binary snapshot.
+ */
+public record JournalRecord(long seq, GameEvent event) {}
@@ -0,0 +1,85 @@
+package com.example.monopoly.game;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * A live room: its connected sessions and the current {@link RoomState}.
+ * Readers take {@link #state()} and work on that version without locking;
+ * writers publish a new version with {@link #publish}. The last
+ * {@value #HISTORY} published versions stay reachable through {@link #recent},
+ * so a client that reconnects can be sent just what it missed.
+ */
+public class Room {
+    public static final int HISTORY = 64;
+
+    public final String id;
+    public final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicReference<RoomState> state;
+    private final AtomicReference<StateFrame> frame = new AtomicReference<>();
+    public int journaled = 0; // records queued since the last snapshot, only touched on the room's mailbox
+    public RoomState sent; // last version broadcast to all sessions; mailbox only
+    public boolean flushScheduled; // a broadcast tick is pending; mailbox only
+    public final Map<String, String> resumeTokens = new HashMap<>(); // resume token -> player id; mailbox only
+    public final Map<String, Long> away = new HashMap<>(); // player id -> when its last session closed; mailbox only
+    public long botThinkMs = -1; // how long a bot waits before it plays, -1 for game.bots.think-ms; mailbox only
+    public boolean botTurnPending; // a bot turn is scheduled; mailbox only
+    public long turnTimeoutMs = -1; // how long a human has for a turn, -1 for game.turns.timeout-ms, 0 for no limit; mailbox only
+    public boolean historyCheckpointed; // the room's history has a checkpoint from this run; mailbox only
+    public volatile boolean journalFailing; // a published version never reached the journal; set on the mailbox
+    // ring of recent versions indexed by seq; written on publish, which only the room's mailbox does
+    private final RoomState[] history = new RoomState[HISTORY];
+
+    public Room(String id) { this(id, new RoomState()); }
+
+    public Room(String id, RoomState initial) {
+        this.id = id;
+        this.state = new AtomicReference<>(initial);
+        remember(initial);
+    }
+
+    public RoomState state() {
+        return state.get();
+    }
+
+    /** Replace {@code expected} with {@code next}; false if another version was published first. */
+    public boolean publish(RoomState expected, RoomState next) {
+        if (!state.compareAndSet(expected, next)) return false;
+        remember(next);
+        return true;
+    }
+
+    /** The published version {@code seq} if it is still in the history, otherwise null. Mailbox only. */
+    public RoomState recent(long seq) {
+        if (seq < 0) return null;
+        RoomState st = history[(int) (seq % HISTORY)];
+        return st != null && st.seq == seq ? st : null;
+    }
+
+    private void remember(RoomState st) {
+        history[(int) (st.seq % HISTORY)] = st;
+    }
+
+    /** The last encoded full state, or null; compare its version before use. */
+    public StateFrame frame() {
+        return frame.get();
+    }
+
+    /** Keep {@code f} unless a newer version is already cached. */
+    public StateFrame cacheFrame(StateFrame f) {
+        return frame.accumulateAndGet(f, (cur, next) -> cur == null || next.version() > cur.version() ? next : cur);
+    }
+
+    /**
+     * Full client state of one version, encoded once: {@code payload} is the JSON
+     * object, {@code message} the {@code "state"} frame around it and {@code binary}
+     * the binary protocol frame. Shared by every reader of that version, so none of
+     * them may be modified; wrap {@code binary} in a new message per send.
+     */
+    public record StateFrame(long version, byte[] payload, TextMessage message, byte[] binary) {}
+}
@@ -0,0 +1,127 @@
+package com.example.monopoly.game;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Compact binary image of a room, used by the snapshot file and the history
+ * checkpoints. Strings are length-prefixed UTF-8 (-1 for null), numbers are
+ * big-endian. There is one layout, stamped as {@link #VERSION} on the files
+ * that hold it; a file stamped with any other number is not read, and a
+ * change to the layout must change the number.
+ */
+public final class RoomCodec {
+    public static final int VERSION = 5;
+
+    private RoomCodec() {}
+
+    public static byte[] encode(RoomState r) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(r.seq);
+            writeString(out, r.adminId);
+            writeString(out, r.adminPrincipal);
+            writeString(out, r.currentTurn());
+            out.writeInt(r.startAmount);
+            out.writeInt(r.turnSeat);
+            out.writeBoolean(r.started);
+
+            Object lastPlayer = r.lastMove.get("playerId");
+            Object lastDice = r.lastMove.get("dice");
+            out.writeBoolean(lastPlayer instanceof String);
+            if (lastPlayer instanceof String) {
+                writeString(out, (String) lastPlayer);
+                out.writeInt(lastDice instanceof Number ? ((Number) lastDice).intValue() : 0);
+                out.writeBoolean(Boolean.TRUE.equals(r.lastMove.get("bot")));
+            }
+
+            out.writeInt(r.playerCount());
+            for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+                if (!r.isSeated(s)) continue;
+                out.writeByte(s);
+                writeString(out, r.seatIds[s]);
+                writeString(out, r.names[s]);
+                out.writeInt(r.pos[s]);
+                out.writeInt(r.money[s]);
+                out.writeBoolean(r.isReady(s));
+            }
+
+            writeString(out, r.board.key());
+            out.writeInt(r.ownerIds.size());
+            for (String id : r.ownerIds) writeString(out, id);
+            out.writeInt(r.owners.length);
+            out.write(r.owners);
+            out.writeLong(r.seed);
+            out.writeLong(r.rolls);
+            out.writeLong(r.turns);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static RoomState decode(ByteBuffer in) {
+        RoomState r = new RoomState();
+        r.seq = in.getLong();
+        r.adminId = readString(in);
+        r.adminPrincipal = readString(in);
+        readString(in); // current turn by player id; the seat below is what the room keeps
+        r.startAmount = in.getInt();
+        r.turnSeat = in.getInt();
+        r.started = in.get() != 0;
+
+        if (in.get() != 0) {
+            String playerId = readString(in);
+            int dice = in.getInt();
+            boolean bot = in.get() != 0;
+            r.lastMove = bot
+                ? Map.of("playerId", playerId, "dice", dice, "bot", true)
+                : Map.of("playerId", playerId, "dice", dice);
+        }
+
+        int players = in.getInt();
+        for (int i = 0; i < players; i++) {
+            int seat = in.get();
+            r.occupy(seat, readString(in), readString(in), 0);
+            r.pos[seat] = in.getInt();
+            r.money[seat] = in.getInt();
+            r.setReady(seat, in.get() != 0);
+        }
+
+        r.setBoard(Board.forKey(readString(in)));
+        int ownerIds = in.getInt();
+        for (int i = 0; i < ownerIds; i++) r.ownerIds.add(readString(in));
+        byte[] owners = new byte[in.getInt()];
+        in.get(owners);
+        System.arraycopy(owners, 0, r.owners, 0, Math.min(owners.length, r.owners.length));
+        r.seed = in.getLong();
+        r.rolls = in.getLong();
+        r.turns = in.getLong();
+        return r;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.monopoly.game;
+
+/**
+ * A room's random numbers: a SplitMix64 stream keyed by the room's seed and
+ * read by position, so the n-th draw is a pure function of (seed, n) and the
+ * only state a room keeps is its seed and how many rolls it has made (see
+ * {@link RoomState#seed}). Nothing is allocated per draw, and any roll of any
+ * game can be recomputed from its journal.
+ */
+public final class RoomRandom {
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private RoomRandom() {}
+
+    /** Draw {@code n} (from 0) of the stream with this seed. */
+    public static long next(long seed, long n) {
+        long z = seed + (n + 1) * GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Roll {@code n} of the room's die: 1 to 6. */
+    public static int dice(long seed, long n) {
+        return 1 + (int) Long.remainderUnsigned(next(seed, n), 6);
+    }
+
+    /** Seed of a stream independent of this one, e.g. for bot decisions; each {@code stream} gives another. */
+    public static long split(long seed, long stream) {
+        // MurmurHash3's finalizer, so neighbouring streams are unrelated
+        long z = seed ^ next(~seed, stream);
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
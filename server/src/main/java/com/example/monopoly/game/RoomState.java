@@ -0,0 +1,170 @@
+package com.example.monopoly.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Game state of one room at one version. A published state is never
+ * modified: a change copies it, applies the event to the copy and publishes
+ * the copy (see {@link Room#publish}), so a reader holding a state always
+ * sees a consistent room. The board layout is shared, everything else is a
+ * handful of small arrays, so a copy is cheap.
+ */
+public class RoomState {
+    public static final int MAX_SEATS = 4;
+
+    // players live in fixed seats; a player id is resolved to its seat once and the seat index is used from then on
+    public String[] seatIds = new String[MAX_SEATS];
+    public String[] names = new String[MAX_SEATS];
+    public int[] pos = new int[MAX_SEATS];
+    public int[] money = new int[MAX_SEATS];
+    public int seated = 0; // bit per occupied seat
+    public int readyMask = 0; // bit per ready seat
+    public int turnSeat = -1; // seat whose turn it is, -1 before the game starts
+    public Board board = Board.CLASSIC;
+    // owner of each tile as an index into ownerIds, plus one (read unsigned); 0 means the bank
+    public byte[] owners = new byte[board.size()];
+    // player ids that own tiles here, so an owner survives leaving and rejoining; an id no tile
+    // points at any more gives its slot to the next new owner, so there are never more than tiles
+    public List<String> ownerIds = new ArrayList<>();
+    public Map<String, Object> lastMove = Map.of();
+    public boolean started = false;
+    public String adminId = null;
+    public String adminPrincipal = null;
+    public int startAmount = 1500;
+    public long seq = 0; // number of events applied, stamped on every journal record
+    // the room's random stream: roll n is RoomRandom.dice(seed, n), rolls is how many have been made
+    public long seed = 0;
+    public long rolls = 0;
+    public long turns = 0; // turns played: rolls and skips that passed the turn on
+
+    /** Private, modifiable copy to build the next version from. */
+    public RoomState copy() {
+        RoomState c = new RoomState();
+        c.seatIds = seatIds.clone();
+        c.names = names.clone();
+        c.pos = pos.clone();
+        c.money = money.clone();
+        c.seated = seated;
+        c.readyMask = readyMask;
+        c.turnSeat = turnSeat;
+        c.board = board;
+        c.owners = owners.clone();
+        c.ownerIds = new ArrayList<>(ownerIds);
+        c.lastMove = lastMove; // replaced, never modified
+        c.started = started;
+        c.adminId = adminId;
+        c.adminPrincipal = adminPrincipal;
+        c.startAmount = startAmount;
+        c.seq = seq;
+        c.seed = seed;
+        c.rolls = rolls;
+        c.turns = turns;
+        return c;
+    }
+
+    /** Seat of the player, or -1 if they are not in this room. */
+    public int seatOf(String playerId) {
+        if (playerId == null) return -1;
+        for (int s = 0; s < MAX_SEATS; s++) {
+            if (playerId.equals(seatIds[s])) return s;
+        }
+        return -1;
+    }
+
+    public boolean isSeated(int seat) {
+        return (seated & (1 << seat)) != 0;
+    }
+
+    public int playerCount() {
+        return Integer.bitCount(seated);
+    }
+
+    /** Put a player in the lowest free seat; -1 if the room is full. */
+    public int takeSeat(String playerId, String name, int startMoney) {
+        int seat = Integer.numberOfTrailingZeros(~seated);
+        if (seat >= MAX_SEATS) return -1;
+        occupy(seat, playerId, name, startMoney);
+        return seat;
+    }
+
+    /** Put a player in a given seat, used when restoring a saved room. */
+    public void occupy(int seat, String playerId, String name, int startMoney) {
+        seatIds[seat] = playerId;
+        names[seat] = name;
+        pos[seat] = 0;
+        money[seat] = startMoney;
+        seated |= 1 << seat;
+        readyMask &= ~(1 << seat);
+    }
+
+    public void leaveSeat(int seat) {
+        seatIds[seat] = null;
+        names[seat] = null;
+        seated &= ~(1 << seat);
+        readyMask &= ~(1 << seat);
+    }
+
+    public boolean isReady(int seat) {
+        return (readyMask & (1 << seat)) != 0;
+    }
+
+    public void setReady(int seat, boolean ready) {
+        if (ready) readyMask |= 1 << seat;
+        else readyMask &= ~(1 << seat);
+    }
+
+    /** Next occupied seat after {@code seat} in turn order, or -1 if the room is empty. */
+    public int nextSeat(int seat) {
+        for (int i = 1; i <= MAX_SEATS; i++) {
+            int s = (seat + i + MAX_SEATS) % MAX_SEATS;
+            if (isSeated(s)) return s;
+        }
+        return -1;
+    }
+
+    /** Player id whose turn it is, or null. */
+    public String currentTurn() {
+        return turnSeat < 0 ? null : seatIds[turnSeat];
+    }
+
+    /** Switch layout; every tile goes back to the bank. */
+    public void setBoard(Board board) {
+        this.board = board;
+        this.owners = new byte[board.size()];
+        this.ownerIds.clear();
+    }
+
+    public String ownerOf(int tile) {
+        int o = owners[tile] & 0xFF;
+        return o == 0 ? null : ownerIds.get(o - 1);
+    }
+
+    public void setOwner(int tile, String playerId) {
+        if (playerId == null) {
+            owners[tile] = 0;
+            return;
+        }
+        int o = ownerIds.indexOf(playerId);
+        if (o < 0) o = newOwner(tile, playerId);
+        owners[tile] = (byte) (o + 1);
+    }
+
+    // slot for an id that owns nothing yet: the first one no other tile points at, else a new one
+    private int newOwner(int tile, String playerId) {
+        boolean[] used = new boolean[ownerIds.size()];
+        for (int t = 0; t < owners.length; t++) {
+            if (t != tile && owners[t] != 0) used[(owners[t] & 0xFF) - 1] = true;
+        }
+        for (int i = 0; i < used.length; i++) {
+            if (!used[i]) {
+                ownerIds.set(i, playerId);
+                return i;
+            }
+        }
+        if (ownerIds.size() >= 255) throw new IllegalStateException("more owners than a byte can index");
+        ownerIds.add(playerId);
+        return ownerIds.size() - 1;
+    }
+}
@@ -23,6 +23,10 @@ public class Lobby {
     private String status; // WAITING, IN_PROGRESS, COMPLETED, CANCELLED
     
     private Integer startAmount; // Starting money for players
+
+    private Integer botThinkMs; // How long bots wait before playing, null for the server default
+
+    private Integer turnTimeoutMs; // How long a player has for a turn (0 = no limit), null for the server default
     
     private LocalDateTime createdAt;
     private LocalDateTime startedAt;
@@ -159,6 +163,22 @@ public class Lobby {
         this.startAmount = startAmount;
     }
 
+    public Integer getBotThinkMs() {
+        return botThinkMs;
+    }
+
+    public void setBotThinkMs(Integer botThinkMs) {
+        this.botThinkMs = botThinkMs;
+    }
+
+    public Integer getTurnTimeoutMs() {
+        return turnTimeoutMs;
+    }
+
+    public void setTurnTimeoutMs(Integer turnTimeoutMs) {
+        this.turnTimeoutMs = turnTimeoutMs;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,253 @@
+package com.example.monopoly.persistence;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.monopoly.game.RoomState;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background stage in front of {@link RoomJournal}. Game commands only queue
+ * their records here; a single writer thread drains the rooms that changed
+ * since the last flush, either every flush interval or as soon as enough
+ * mutations have piled up, whichever comes first. Rooms that did not change
+ * are never touched. Shutdown flushes synchronously.
+ *
+ * <p>Appended records also go to the {@link RoomHistory}, including those a
+ * later snapshot supersedes in the journal.
+ *
+ * <p>A room whose write fails keeps the failed record and everything after
+ * it, in order and ahead of anything queued since, and is retried after a
+ * delay that starts at the flush interval and doubles with every failure in
+ * a row, up to {@value #MAX_RETRY_DELAY_MS} ms. Nothing later is written for
+ * it until that succeeds, so its journal never has a gap. Records kept for a
+ * retry do not count towards {@code flush-every}, so a room that keeps
+ * failing cannot keep the writer awake.
+ */
+@Component
+public class PersistenceWriter {
+    private static final Logger log = LoggerFactory.getLogger(PersistenceWriter.class);
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private final RoomJournal journal;
+    private final RoomHistory history;
+    private final long flushIntervalMs;
+    private final int flushEvery;
+
+    private final Map<String, Queue<Pending>> pending = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    // rooms whose last write failed, with their records oldest first; only touched under flushLock
+    private final Map<String, Retry> failed = new ConcurrentHashMap<>();
+    // records queued and not yet taken by a flush
+    private final AtomicInteger unflushed = new AtomicInteger();
+    private final Object signal = new Object();
+    private final Object flushLock = new Object();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Timer flushLag;
+    private final Timer flushDuration;
+    private final Counter recordsWritten;
+    private final Counter writeFailures;
+
+    private enum Kind { APPEND, SNAPSHOT, TRUNCATE }
+
+    private record Pending(Kind kind, byte[] record, RoomState checkpoint, long enqueuedAt) {}
+
+    // failures is how many writes in a row failed, dueAt the System.nanoTime() of the next attempt
+    private record Retry(List<Pending> records, int failures, long dueAt) {}
+
+    public PersistenceWriter(RoomJournal journal, RoomHistory history, MeterRegistry registry,
+                             @Value("${game.persistence.flush-interval-ms:250}") long flushIntervalMs,
+                             @Value("${game.persistence.flush-every:64}") int flushEvery) {
+        this.journal = journal;
+        this.history = history;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushEvery = flushEvery;
+        // time from a record being queued until it reaches the journal
+        this.flushLag = Timer.builder("game.persistence.flush.lag")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.flushDuration = Timer.builder("game.persistence.flush.duration").register(registry);
+        this.recordsWritten = Counter.builder("game.persistence.records").register(registry);
+        this.writeFailures = Counter.builder("game.persistence.failures").register(registry);
+        Gauge.builder("game.persistence.pending", unflushed, AtomicInteger::get).register(registry);
+        Gauge.builder("game.persistence.dirty.rooms", dirty, Set::size).register(registry);
+        Gauge.builder("game.persistence.failing.rooms", failed, Map::size).register(registry);
+
+        this.writer = new Thread(this::run, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue one journal record for a room. Never blocks on I/O. {@code checkpoint}
+     * is the room after this record when the history is due a checkpoint, else null.
+     */
+    public void append(String roomId, byte[] record, RoomState checkpoint) {
+        enqueue(roomId, new Pending(Kind.APPEND, record, checkpoint, System.nanoTime()));
+    }
+
+    /**
+     * Queue a snapshot for a room. Everything queued before it for the same
+     * room is superseded and will not be written.
+     */
+    public void snapshot(String roomId, byte[] snapshot) {
+        enqueue(roomId, new Pending(Kind.SNAPSHOT, snapshot, null, System.nanoTime()));
+    }
+
+    /**
+     * Queue removal of a room's journal, for rooms whose state is fully held by
+     * the binary snapshot. Like a snapshot it supersedes earlier records.
+     */
+    public void truncate(String roomId) {
+        enqueue(roomId, new Pending(Kind.TRUNCATE, null, null, System.nanoTime()));
+    }
+
+    private void enqueue(String roomId, Pending p) {
+        pending.computeIfAbsent(roomId, k -> new ConcurrentLinkedQueue<>()).add(p);
+        dirty.add(roomId);
+        if (unflushed.incrementAndGet() >= flushEvery) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                synchronized (signal) {
+                    if (unflushed.get() < flushEvery) signal.wait(flushIntervalMs);
+                }
+                flush(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Persistence flush failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Write every queued record to the journal now, retrying failed rooms without waiting for their delay. */
+    public void flush() {
+        flush(true);
+    }
+
+    private void flush(boolean retryNow) {
+        synchronized (flushLock) {
+            long started = System.nanoTime();
+            int written = 0;
+            for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+                String roomId = it.next();
+                it.remove();
+                Retry retry = failed.remove(roomId);
+                List<Pending> batch = retry == null ? new ArrayList<>() : retry.records();
+                Queue<Pending> q = pending.get(roomId);
+                int taken = 0;
+                if (q != null) {
+                    for (Pending p; (p = q.poll()) != null; taken++) batch.add(p);
+                }
+                unflushed.addAndGet(-taken);
+                if (batch.isEmpty()) continue;
+                if (retry != null && !retryNow && started - retry.dueAt() < 0) {
+                    failed.put(roomId, new Retry(batch, retry.failures(), retry.dueAt()));
+                    continue;
+                }
+                written += writeRoom(roomId, batch, retry == null ? 0 : retry.failures());
+            }
+            // failed rooms go round again on a later flush, not this one
+            dirty.addAll(failed.keySet());
+            if (written > 0) flushDuration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Whether the room's last journal write failed and is waiting to be retried. */
+    public boolean isFailing(String roomId) {
+        return failed.containsKey(roomId);
+    }
+
+    // returns how many of the batch's records are done with; the rest are kept for the next flush
+    private int writeRoom(String roomId, List<Pending> batch, int failures) {
+        // only the newest snapshot/truncate matters, older records are already folded into it
+        int from = 0;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (batch.get(i).kind() != Kind.APPEND) { from = i; break; }
+        }
+        long now = System.nanoTime();
+        int done = from;
+        try {
+            for (; done < batch.size(); done++) {
+                Pending p = batch.get(done);
+                switch (p.kind()) {
+                    case APPEND -> journal.append(roomId, p.record());
+                    case SNAPSHOT -> journal.compact(roomId, p.record());
+                    case TRUNCATE -> journal.delete(roomId);
+                }
+            }
+            flushLag.record(now - batch.get(0).enqueuedAt(), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            long delayMs = Math.min(flushIntervalMs << Math.min(failures, 16), MAX_RETRY_DELAY_MS);
+            failed.put(roomId, new Retry(new ArrayList<>(batch.subList(done, batch.size())), failures + 1,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs)));
+            writeFailures.increment();
+            log.error("Failed to write journal of room {}, keeping {} records to retry in {} ms: {}",
+                    roomId, batch.size() - done, delayMs, e.getMessage());
+        }
+        recordsWritten.increment(done - from);
+        if (history.enabled()) writeHistory(roomId, batch.subList(0, done));
+        return done;
+    }
+
+    // the history follows the journal: a record kept for retry goes there once it is journaled
+    private void writeHistory(String roomId, List<Pending> written) {
+        List<RoomHistory.Entry> entries = new ArrayList<>(written.size());
+        for (Pending p : written) {
+            if (p.kind() == Kind.APPEND) entries.add(new RoomHistory.Entry(p.record(), p.checkpoint()));
+        }
+        if (entries.isEmpty()) return;
+        try {
+            history.append(roomId, entries);
+        } catch (Exception e) {
+            log.error("Failed to write {} history records for room {}: {}", entries.size(), roomId, e.getMessage());
+        }
+    }
+
+    public int getPendingCount() {
+        return unflushed.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        try {
+            writer.join(flushIntervalMs * 4);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        journal.sync();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.monopoly.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.monopoly.game.RoomCodec;
+import com.example.monopoly.game.RoomState;
+
+/**
+ * Every event a room ever had, kept after its journal has been compacted
+ * away and after the game is over, so any past version of a room can be
+ * rebuilt. Per room there is an events file (journal records, one per line,
+ * never compacted) and a checkpoint file: every
+ * {@code game.history.checkpoint-every} events the room's image
+ * ({@link RoomCodec}) together with the events file offset it is valid at.
+ * Rebuilding a version starts from the last checkpoint before it, so it
+ * never replays more than that many events however long the game was.
+ *
+ * <p>Only the persistence writer thread appends. This is an archive for
+ * support and analytics, not a source of truth: it is not fsynced, and
+ * events lost in a crash leave a gap that the next checkpoint closes.
+ */
+@Component
+public class RoomHistory {
+    private static final String EVENTS = ".events";
+    private static final String CHECKPOINTS = ".checkpoints";
+    private static final int HEADER = 4 + 8 + 8 + 8 + 4; // codec version, seq, turns, events offset, image length
+
+    /** A room image at version {@code seq}, after {@code turns} turns, and where its next event starts. */
+    public record Checkpoint(long seq, long turns, long offset, RoomState state) {}
+
+    /** One event to append, with the room after it when it is due for a checkpoint. */
+    record Entry(byte[] record, RoomState checkpoint) {}
+
+    private final Path dir;
+    private final int checkpointEvery;
+
+    public RoomHistory(@Value("${game.history.dir:game-data/history}") String dir,
+                       @Value("${game.history.checkpoint-every:100}") int checkpointEvery) {
+        this.dir = Paths.get(dir);
+        this.checkpointEvery = checkpointEvery;
+        if (checkpointEvery <= 0) return;
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create history directory " + this.dir, e);
+        }
+    }
+
+    /** Events between checkpoints; 0 when history is off. */
+    public int getCheckpointEvery() {
+        return checkpointEvery;
+    }
+
+    public boolean enabled() {
+        return checkpointEvery > 0;
+    }
+
+    // a batch of one room's events, in order
+    void append(String roomId, List<Entry> entries) throws IOException {
+        try (FileChannel events = FileChannel.open(file(roomId, EVENTS), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            FileChannel checkpoints = null;
+            try {
+                for (Entry e : entries) {
+                    ByteBuffer line = ByteBuffer.allocate(e.record().length + 1);
+                    line.put(e.record()).put((byte) '\n').flip();
+                    while (line.hasRemaining()) events.write(line);
+                    if (e.checkpoint() == null) continue;
+                    if (checkpoints == null) {
+                        checkpoints = FileChannel.open(file(roomId, CHECKPOINTS), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    }
+                    RoomState st = e.checkpoint();
+                    byte[] image = RoomCodec.encode(st);
+                    ByteBuffer buf = ByteBuffer.allocate(HEADER + image.length);
+                    buf.putInt(RoomCodec.VERSION).putLong(st.seq).putLong(st.turns).putLong(events.position()).putInt(image.length).put(image).flip();
+                    while (buf.hasRemaining()) checkpoints.write(buf);
+                }
+            } finally {
+                if (checkpoints != null) checkpoints.close();
+            }
+        }
+    }
+
+    /** Whether anything was ever recorded for the room. */
+    public boolean exists(String roomId) {
+        return Files.exists(file(roomId, EVENTS));
+    }
+
+    /**
+     * The last checkpoint at or before version {@code seq} that is also at or
+     * before {@code turns} turns, or null if there is none.
+     */
+    public Checkpoint checkpointBefore(String roomId, long seq, long turns) throws IOException {
+        Path file = file(roomId, CHECKPOINTS);
+        if (!Files.exists(file)) return null;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            long best = -1, bestSeq = 0, bestTurns = 0, bestOffset = 0;
+            int bestLength = 0;
+            // headers only; the one image needed is read at the end
+            for (long pos = 0; pos + HEADER <= in.size(); ) {
+                header.clear();
+                while (header.hasRemaining() && in.read(header, pos + header.position()) >= 0) {}
+                header.flip();
+                int version = header.getInt();
+                long s = header.getLong(), t = header.getLong(), offset = header.getLong();
+                int length = header.getInt();
+                if (pos + HEADER + length > in.size()) break; // torn tail
+                if (s > seq || t > turns) break; // checkpoints are in seq order, so are turns
+                // one written in another layout is passed over, the events after it still replay
+                if (version == RoomCodec.VERSION) {
+                    best = pos;
+                    bestSeq = s;
+                    bestTurns = t;
+                    bestOffset = offset;
+                    bestLength = length;
+                }
+                pos += HEADER + length;
+            }
+            if (best < 0) return null;
+            ByteBuffer image = ByteBuffer.allocate(bestLength);
+            while (image.hasRemaining() && in.read(image, best + HEADER + image.position()) >= 0) {}
+            image.flip();
+            return new Checkpoint(bestSeq, bestTurns, bestOffset, RoomCodec.decode(image));
+        }
+    }
+
+    /** Up to {@code max} event records of the room starting at byte {@code offset} of its events file. */
+    public List<byte[]> read(String roomId, long offset, int max) throws IOException {
+        List<byte[]> out = new ArrayList<>();
+        Path file = file(roomId, EVENTS);
+        if (!Files.exists(file)) return out;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            in.position(offset);
+            BufferedReader lines = new BufferedReader(new InputStreamReader(Channels.newInputStream(in), StandardCharsets.UTF_8));
+            for (String l; out.size() < max && (l = lines.readLine()) != null; ) {
+                if (!l.isBlank()) out.add(l.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return out;
+    }
+
+    private Path file(String roomId, String suffix) {
+        return dir.resolve(RoomJournal.encode(roomId) + suffix);
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.monopoly.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only journal with one file per room. Each record is a single line;
+ * callers decide what a record means. Appends are written straight to the
+ * room's file and a background thread fsyncs every file that changed in the
+ * last interval (group commit), so an append never waits for fsync.
+ * {@link #compact} replaces a room's file with a single snapshot record.
+ */
+@Component
+public class RoomJournal {
+    private static final Logger log = LoggerFactory.getLogger(RoomJournal.class);
+    private static final String SUFFIX = ".log";
+    private static final long IDLE_CLOSE_MS = 60_000L;
+
+    private final Path dir;
+    private final int snapshotEvery;
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService syncer;
+
+    private static final class Segment {
+        final Path file;
+        FileChannel channel;
+        long records;
+        boolean closed;
+        volatile boolean dirty;
+        volatile long lastWrite = System.currentTimeMillis();
+
+        Segment(Path file) { this.file = file; }
+    }
+
+    public RoomJournal(@Value("${game.journal.dir:game-data/rooms}") String dir,
+                       @Value("${game.journal.sync-interval-ms:50}") long syncIntervalMs,
+                       @Value("${game.journal.snapshot-every:200}") int snapshotEvery) {
+        this.dir = Paths.get(dir);
+        this.snapshotEvery = snapshotEvery;
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create journal directory " + this.dir, e);
+        }
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "room-journal-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        syncer.scheduleWithFixedDelay(this::syncDirty, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public int getSnapshotEvery() {
+        return snapshotEvery;
+    }
+
+    /**
+     * Append one record to the room's journal.
+     * @return number of records in the journal since the last compaction
+     */
+    public long append(String roomId, byte[] record) throws IOException {
+        while (true) {
+            Segment seg = segments.computeIfAbsent(roomId, k -> new Segment(fileFor(k)));
+            synchronized (seg) {
+                if (seg.closed) continue; // lost a race with the idle closer, reopen
+                ensureOpen(seg);
+                try {
+                    seg.channel.write(line(record));
+                } catch (IOException e) {
+                    // the record may be half written: reopening cuts it off before the retry
+                    closeQuietly(seg);
+                    segments.remove(roomId, seg);
+                    throw e;
+                }
+                seg.records++;
+                seg.lastWrite = System.currentTimeMillis();
+                seg.dirty = true;
+                return seg.records;
+            }
+        }
+    }
+
+    /**
+     * Atomically replace the room's journal with a single snapshot record.
+     */
+    public void compact(String roomId, byte[] snapshot) throws IOException {
+        while (true) {
+            Segment seg = segments.computeIfAbsent(roomId, k -> new Segment(fileFor(k)));
+            synchronized (seg) {
+                if (seg.closed) continue;
+                Path tmp = seg.file.resolveSibling(seg.file.getFileName() + ".tmp");
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    out.write(line(snapshot));
+                    out.force(true);
+                }
+                if (seg.channel != null) {
+                    seg.channel.close();
+                    seg.channel = null;
+                }
+                Files.move(tmp, seg.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                seg.records = 1;
+                seg.dirty = false;
+                seg.lastWrite = System.currentTimeMillis();
+                return;
+            }
+        }
+    }
+
+    /** Remove a room's journal entirely. */
+    public void delete(String roomId) throws IOException {
+        while (true) {
+            Segment seg = segments.computeIfAbsent(roomId, k -> new Segment(fileFor(k)));
+            synchronized (seg) {
+                if (seg.closed) continue;
+                closeQuietly(seg);
+                segments.remove(roomId, seg);
+                Files.deleteIfExists(seg.file);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read every record of a room, oldest first. A torn trailing line from a
+     * crash is returned as-is (it is cut off once the room is appended to
+     * again); the caller is expected to stop at the first record it cannot
+     * decode.
+     */
+    public List<byte[]> read(String roomId) throws IOException {
+        Path file = fileFor(roomId);
+        List<byte[]> out = new ArrayList<>();
+        if (!Files.exists(file)) return out;
+        for (String l : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!l.isBlank()) out.add(l.getBytes(StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    public Set<String> roomIds() throws IOException {
+        Set<String> ids = new LinkedHashSet<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                 .filter(n -> n.endsWith(SUFFIX))
+                 .forEach(n -> ids.add(decode(n.substring(0, n.length() - SUFFIX.length()))));
+        }
+        return ids;
+    }
+
+    /** Force every pending append to disk. */
+    public void sync() {
+        for (Segment seg : segments.values()) {
+            synchronized (seg) {
+                force(seg);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        syncer.shutdown();
+        for (Segment seg : segments.values()) {
+            synchronized (seg) {
+                force(seg);
+                closeQuietly(seg);
+            }
+        }
+        segments.clear();
+    }
+
+    // one fsync per changed file per interval covers every append made in it
+    private void syncDirty() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Segment> en : segments.entrySet()) {
+            Segment seg = en.getValue();
+            if (seg.dirty) {
+                synchronized (seg) {
+                    force(seg);
+                }
+            } else if (now - seg.lastWrite > IDLE_CLOSE_MS) {
+                // dormant room: give the file descriptor back
+                synchronized (seg) {
+                    if (!seg.dirty) {
+                        closeQuietly(seg);
+                        segments.remove(en.getKey(), seg);
+                    }
+                }
+            }
+        }
+    }
+
+    private void force(Segment seg) {
+        if (!seg.dirty || seg.channel == null) return;
+        seg.dirty = false;
+        try {
+            seg.channel.force(false);
+        } catch (IOException e) {
+            seg.dirty = true;
+            log.error("Journal fsync failed for {}: {}", seg.file, e.getMessage());
+        }
+    }
+
+    private void ensureOpen(Segment seg) throws IOException {
+        if (seg.channel != null) return;
+        FileChannel ch = FileChannel.open(seg.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // a crash can leave half a record at the end; the next one must not be glued onto it
+            long end = lastLineEnd(ch);
+            if (end < ch.size()) {
+                log.warn("Dropping torn record ({} bytes) at the end of {}", ch.size() - end, seg.file);
+                ch.truncate(end);
+                ch.force(false);
+            }
+            ch.position(end);
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        try (Stream<String> lines = Files.lines(seg.file, StandardCharsets.UTF_8)) {
+            seg.records = lines.filter(l -> !l.isBlank()).count();
+        }
+        seg.channel = ch;
+    }
+
+    // length of the file up to and including its last newline, 0 if it has none
+    private static long lastLineEnd(FileChannel ch) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        for (long pos = ch.size(); pos > 0; ) {
+            int n = (int) Math.min(buf.capacity(), pos);
+            pos -= n;
+            buf.clear().limit(n);
+            while (buf.hasRemaining() && ch.read(buf, pos + buf.position()) >= 0) {}
+            for (int i = n - 1; i >= 0; i--) {
+                if (buf.get(i) == '\n') return pos + i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void closeQuietly(Segment seg) {
+        seg.closed = true;
+        if (seg.channel == null) return;
+        try { seg.channel.close(); } catch (IOException ignored) {}
+        seg.channel = null;
+    }
+
+    private static ByteBuffer line(byte[] record) {
+        ByteBuffer buf = ByteBuffer.allocate(record.length + 1);
+        buf.put(record).put((byte) '\n').flip();
+        return buf;
+    }
+
+    private Path fileFor(String roomId) {
+        return dir.resolve(encode(roomId) + SUFFIX);
+    }
+
+    // room ids come straight from the ws query string, keep file names to a safe alphabet
+    static String encode(String roomId) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : roomId.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                sb.append(c);
+            } else {
+                sb.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return sb.toString();
+    }
+
+    static String decode(String name) {
+        byte[] out = new byte[name.length()];
+        int n = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '%' && i + 2 < name.length()) {
+                out[n++] = (byte) Integer.parseInt(name.substring(i + 1, i + 3), 16);
+                i += 2;
+            } else {
+                out[n++] = (byte) c;
+            }
+        }
+        return new String(out, 0, n, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.monopoly.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.monopoly.game.RoomCodec;
+
+/**
+ * Binary snapshot of every room in one file, memory-mapped on startup.
+ * Only the room index is read at boot; a room's bytes are handed out on
+ * demand so rooms nobody touches are never decoded.
+ *
+ * <pre>
+ * header : int magic, int formatVersion, long generation, int roomCount, long indexOffset
+ * body   : room blocks in the {@link RoomCodec} layout, back to back
+ * index  : roomCount x { short idLength, byte[] id (UTF-8), long offset, int length }
+ * </pre>
+ *
+ * Each write produces a new generation file ({@code rooms-<generation>.snap})
+ * that is written to a temp name, fsynced and renamed, so a crash never leaves
+ * a half-written snapshot under a real name. A file whose format version is
+ * not {@link RoomCodec#VERSION} is not mapped; those rooms come back from
+ * their journals.
+ */
+@Component
+public class SnapshotStore {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+    private static final int MAGIC = 0x4D4E5053; // "MNPS"
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8;
+    private static final String PREFIX = "rooms-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path dir;
+    private volatile Generation current = Generation.EMPTY;
+
+    private record Entry(int offset, int length) {}
+
+    private record Generation(long number, ByteBuffer map, Map<String, Entry> index) {
+        static final Generation EMPTY = new Generation(0, null, Map.of());
+    }
+
+    public SnapshotStore(@Value("${game.snapshot.dir:game-data}") String dir) {
+        this.dir = Paths.get(dir);
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create snapshot directory " + this.dir, e);
+        }
+    }
+
+    /** Map the newest readable generation. */
+    public void open() {
+        List<Long> generations = listGenerations();
+        Collections.sort(generations, Collections.reverseOrder());
+        for (long gen : generations) {
+            try {
+                current = map(fileFor(gen));
+                log.info("Mapped snapshot generation {} with {} rooms", gen, current.index().size());
+                return;
+            } catch (Exception e) {
+                log.warn("Skipping snapshot {}: {}", fileFor(gen), e.getMessage());
+            }
+        }
+    }
+
+    public Set<String> roomIds() {
+        return current.index().keySet();
+    }
+
+    /** Read-only view of a room's bytes in the current generation, or null. */
+    public ByteBuffer room(String roomId) {
+        Generation g = current;
+        Entry e = g.index().get(roomId);
+        if (e == null) return null;
+        return g.map().duplicate().position(e.offset()).limit(e.offset() + e.length()).slice();
+    }
+
+    /**
+     * Write a new generation holding {@code rooms}, plus every room of the
+     * current generation that is not in {@code rooms} (copied byte for byte).
+     */
+    public synchronized void write(Map<String, byte[]> rooms) throws IOException {
+        Generation prev = current;
+        long gen = prev.number();
+        for (long g : listGenerations()) gen = Math.max(gen, g);
+        gen++;
+        Path file = fileFor(gen);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        Map<String, Entry> index = new HashMap<>();
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long pos = HEADER_BYTES;
+            ch.position(pos);
+            for (Map.Entry<String, byte[]> en : rooms.entrySet()) {
+                pos += writeBlock(ch, en.getKey(), ByteBuffer.wrap(en.getValue()), pos, index);
+            }
+            for (String roomId : prev.index().keySet()) {
+                if (rooms.containsKey(roomId)) continue;
+                pos += writeBlock(ch, roomId, room(prev, roomId), pos, index);
+            }
+
+            long indexOffset = pos;
+            for (Map.Entry<String, Entry> en : index.entrySet()) {
+                byte[] id = en.getKey().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer rec = ByteBuffer.allocate(2 + id.length + 8 + 4);
+                rec.putShort((short) id.length).put(id).putLong(en.getValue().offset()).putInt(en.getValue().length()).flip();
+                while (rec.hasRemaining()) ch.write(rec);
+            }
+            if (ch.position() > Integer.MAX_VALUE) throw new IOException("snapshot larger than 2GB");
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(RoomCodec.VERSION).putLong(gen).putInt(index.size()).putLong(indexOffset).flip();
+            ch.position(0);
+            while (header.hasRemaining()) ch.write(header);
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        current = map(file);
+        deleteOlderThan(gen);
+    }
+
+    private static int writeBlock(FileChannel ch, String roomId, ByteBuffer block, long pos, Map<String, Entry> index) throws IOException {
+        int length = block.remaining();
+        while (block.hasRemaining()) ch.write(block);
+        index.put(roomId, new Entry((int) pos, length));
+        return length;
+    }
+
+    private static ByteBuffer room(Generation g, String roomId) {
+        Entry e = g.index().get(roomId);
+        return g.map().duplicate().position(e.offset()).limit(e.offset() + e.length()).slice();
+    }
+
+    private static Generation map(Path file) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC) throw new IOException("not a snapshot file");
+        int version = map.getInt(4);
+        if (version != RoomCodec.VERSION) throw new IOException("format version " + version + ", expected " + RoomCodec.VERSION);
+        long gen = map.getLong(8);
+        int count = map.getInt(16);
+        long indexOffset = map.getLong(20);
+
+        Map<String, Entry> index = new HashMap<>(count * 2);
+        ByteBuffer in = map.duplicate().position((int) indexOffset);
+        for (int i = 0; i < count; i++) {
+            byte[] id = new byte[in.getShort()];
+            in.get(id);
+            index.put(new String(id, StandardCharsets.UTF_8), new Entry((int) in.getLong(), in.getInt()));
+        }
+        return new Generation(gen, map, index);
+    }
+
+    private List<Long> listGenerations() {
+        List<Long> out = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                 .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                 .forEach(n -> {
+                     try {
+                         out.add(Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())));
+                     } catch (NumberFormatException ignored) {}
+                 });
+        } catch (IOException e) {
+            log.warn("Cannot list snapshots in {}: {}", dir, e.getMessage());
+        }
+        return out;
+    }
+
+    // best effort: a generation that is still mapped cannot be deleted on Windows, the next write retries
+    private void deleteOlderThan(long gen) {
+        for (long g : listGenerations()) {
+            if (g >= gen) continue;
+            try {
+                Files.deleteIfExists(fileFor(g));
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private Path fileFor(long gen) {
+        return dir.resolve(PREFIX + gen + SUFFIX);
+    }
+}
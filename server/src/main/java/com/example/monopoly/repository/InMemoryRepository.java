@@ -0,0 +1,124 @@
+package com.example.monopoly.repository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+
+/**
+ * A repository interface served from a map instead of MongoDB, for the
+ * {@code memory} profile. It answers the CRUD calls the services make and
+ * derived queries on one property ({@code findByX}, {@code existsByX},
+ * {@code findByXContaining} for list properties); anything else throws.
+ * Entities are stored as saved, so callers see their own instances back.
+ */
+public final class InMemoryRepository implements InvocationHandler {
+    private final Class<?> entity;
+    private final Field id;
+    private final Map<Object, Object> documents = new ConcurrentHashMap<>();
+    private final Map<String, Field> fields = new ConcurrentHashMap<>();
+
+    private InMemoryRepository(Class<?> entity) {
+        this.entity = entity;
+        this.id = idField(entity);
+    }
+
+    public static <R> R of(Class<R> repository, Class<?> entity) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] { repository }, new InMemoryRepository(entity)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        int arity = args == null ? 0 : args.length;
+        switch (name) {
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            case "toString": return "InMemoryRepository<" + entity.getSimpleName() + ">";
+            case "save", "insert":
+                if (args[0] instanceof Iterable<?> all) {
+                    List<Object> saved = new ArrayList<>();
+                    for (Object e : all) saved.add(save(e));
+                    return saved;
+                }
+                return save(args[0]);
+            case "saveAll":
+                List<Object> saved = new ArrayList<>();
+                for (Object e : (Iterable<?>) args[0]) saved.add(save(e));
+                return saved;
+            case "findById": return Optional.ofNullable(documents.get(args[0]));
+            case "existsById": return documents.containsKey(args[0]);
+            case "count": if (arity == 0) return (long) documents.size(); break;
+            case "findAll": if (arity == 0) return new ArrayList<>(documents.values()); break;
+            case "deleteById": documents.remove(args[0]); return null;
+            case "delete": documents.remove(id.get(args[0])); return null;
+            case "deleteAll":
+                if (arity == 0) documents.clear();
+                else for (Object e : (Iterable<?>) args[0]) documents.remove(id.get(e));
+                return null;
+            default:
+                if (arity == 1 && name.startsWith("findBy")) return find(method, name.substring("findBy".length()), args[0]);
+                if (arity == 1 && name.startsWith("existsBy")) return !matching(name.substring("existsBy".length()), args[0]).isEmpty();
+        }
+        throw new UnsupportedOperationException(name + " is not supported in memory");
+    }
+
+    private Object save(Object e) throws IllegalAccessException {
+        Object key = id.get(e);
+        if (key == null) {
+            key = new ObjectId().toHexString();
+            id.set(e, key);
+        }
+        documents.put(key, e);
+        return e;
+    }
+
+    private Object find(Method method, String property, Object value) throws IllegalAccessException {
+        List<Object> found = matching(property, value);
+        if (method.getReturnType() == Optional.class) return found.stream().findFirst();
+        return found;
+    }
+
+    private List<Object> matching(String property, Object value) throws IllegalAccessException {
+        boolean containing = property.endsWith("Containing");
+        Field f = field(containing ? property.substring(0, property.length() - "Containing".length()) : property);
+        List<Object> out = new ArrayList<>();
+        for (Object e : documents.values()) {
+            Object v = f.get(e);
+            if (containing ? v instanceof Collection<?> c && c.contains(value) : Objects.equals(value, v)) out.add(e);
+        }
+        return out;
+    }
+
+    private Field field(String property) {
+        return fields.computeIfAbsent(property, p -> {
+            try {
+                Field f = entity.getDeclaredField(Character.toLowerCase(p.charAt(0)) + p.substring(1));
+                f.setAccessible(true);
+                return f;
+            } catch (NoSuchFieldException e) {
+                throw new UnsupportedOperationException(entity.getSimpleName() + " has no property " + p);
+            }
+        });
+    }
+
+    private static Field idField(Class<?> entity) {
+        for (Field f : entity.getDeclaredFields()) {
+            if (f.isAnnotationPresent(Id.class)) {
+                f.setAccessible(true);
+                return f;
+            }
+        }
+        throw new IllegalArgumentException(entity.getSimpleName() + " has no @Id field");
+    }
+}
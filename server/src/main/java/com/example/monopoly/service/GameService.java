@@ -1,222 +1,244 @@
 package com.example.monopoly.service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
+import com.example.monopoly.bot.BotStrategy;
+import com.example.monopoly.game.Board;
+import com.example.monopoly.game.GameEvent;
+import com.example.monopoly.game.GameReplay;
+import com.example.monopoly.game.GameRules;
+import com.example.monopoly.game.JournalRecord;
+import com.example.monopoly.game.Room;
+import com.example.monopoly.game.RoomCodec;
+import com.example.monopoly.game.RoomRandom;
+import com.example.monopoly.game.RoomState;
 import com.example.monopoly.model.Lobby;
+import com.example.monopoly.persistence.PersistenceWriter;
+import com.example.monopoly.persistence.RoomHistory;
+import com.example.monopoly.persistence.RoomJournal;
+import com.example.monopoly.persistence.SnapshotStore;
 import com.example.monopoly.repository.LobbyRepository;
+import com.example.monopoly.ws.BinaryProtocol;
+import com.example.monopoly.ws.SessionSender;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.annotation.PreDestroy;
+
 @Service
 public class GameService {
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+
+    // a room's state is only changed from that room's RoomExecutor mailbox, callers route commands there
     private final ConcurrentMap<String, Room> rooms = new ConcurrentHashMap<>();
+    // rooms on disk (snapshot and/or journal) that have not been decoded yet
+    private final Set<String> dormant = ConcurrentHashMap.newKeySet();
+    // dormant rooms being decoded, so that only one caller does it
+    private final Map<String, CompletableFuture<Room>> loading = new ConcurrentHashMap<>();
+    private final Object checkpointLock = new Object();
     private final ObjectMapper mapper = new ObjectMapper();
-    private final Path persistPath = Paths.get("game-state.json");
+    // session attribute: last room version (RoomState) the session was sent, patches start from it
+    private static final String SEEN_STATE = "seenState";
+    // pre-journal persistence format, only read once to migrate old installs
+    private final Path legacyStatePath = Paths.get("game-state.json");
     private final LobbyRepository lobbyRepository;
+    private final RoomJournal journal;
+    private final PersistenceWriter writer;
+    private final SnapshotStore snapshots;
+    private final RoomHistory history;
+    private final RoomExecutor executor;
+    private final SessionSender sender;
+    private final SessionRegistry registry;
+    private final BotStrategy botStrategy;
+    private final long broadcastTickMs;
+    private final long resumeGraceMs;
+    private final long botThinkMs;
+    private final long turnTimeoutMs;
+    private final boolean autoRollOnTimeout;
+    private final Map<String, TurnClock> turnClocks = new ConcurrentHashMap<>(); // by room, touched on the room's mailbox
+    private final SecureRandom tokens = new SecureRandom();
 
-    public GameService(LobbyRepository lobbyRepository) {
+    public GameService(LobbyRepository lobbyRepository, RoomJournal journal, PersistenceWriter writer, SnapshotStore snapshots,
+                       RoomHistory history, RoomExecutor executor, SessionSender sender, SessionRegistry registry, BotStrategy botStrategy,
+                       @Value("${game.ws.broadcast-tick-ms:0}") long broadcastTickMs,
+                       @Value("${game.ws.resume-grace-ms:30000}") long resumeGraceMs,
+                       @Value("${game.bots.think-ms:1000}") long botThinkMs,
+                       @Value("${game.turns.timeout-ms:60000}") long turnTimeoutMs,
+                       @Value("${game.turns.on-timeout:roll}") String onTurnTimeout) {
         this.lobbyRepository = lobbyRepository;
-    }
-
-    private static class Player {
-        public final String id;
-        public final String name;
-        public int pos = 0;
-        public int money = 1500;
-
-        public Player(String id, String name) {
-            this.id = id;
-            this.name = name;
+        this.journal = journal;
+        this.writer = writer;
+        this.snapshots = snapshots;
+        this.history = history;
+        this.executor = executor;
+        this.sender = sender;
+        this.registry = registry;
+        this.botStrategy = botStrategy;
+        this.broadcastTickMs = broadcastTickMs;
+        this.resumeGraceMs = resumeGraceMs;
+        this.botThinkMs = botThinkMs;
+        this.turnTimeoutMs = turnTimeoutMs;
+        switch (onTurnTimeout.trim().toLowerCase(Locale.ROOT)) {
+            case "roll" -> this.autoRollOnTimeout = true;
+            case "skip" -> this.autoRollOnTimeout = false;
+            default -> throw new IllegalArgumentException("game.turns.on-timeout must be roll or skip, not " + onTurnTimeout);
         }
+        loadState();
     }
 
-    private static class Property {
-        public final int id;
-        public final String name;
-        public final int cost;
-        public String ownerId = null;
-
-        public Property(int id, String name, int cost) {
-            this.id = id;
-            this.name = name;
-            this.cost = cost;
-        }
+    // look up a room, decoding it from disk the first time it is touched
+    private Room room(String roomId) {
+        Room r = rooms.get(roomId);
+        if (r != null) return r;
+        // a loaded room is in the map before it leaves dormant, so look again once it has
+        if (!dormant.contains(roomId)) return rooms.get(roomId);
+        return load(roomId);
     }
 
-    private static class Room {
-        public final String id;
-        public final Map<String, Player> players = new LinkedHashMap<>();
-        public final Map<String, Boolean> readyStates = new ConcurrentHashMap<>();
-        public final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
-        public final List<Property> properties = new ArrayList<>();
-        public Map<String, Object> lastMove = new HashMap<>();
-        public boolean started = false;
-        public String adminId = null;
-        public String adminPrincipal = null;
-        public int startAmount = 1500;
-        public String currentTurn = null; // Player ID whose turn it is
-        public int turnIndex = 0; // Index in player list
-
-        public Room(String id) { this.id = id; }
+    // decode a dormant room once: the first caller does it on its own thread, outside the room map so other
+    // rooms are not held up by its I/O, and anyone asking meanwhile waits for that result
+    private Room load(String roomId) {
+        CompletableFuture<Room> mine = new CompletableFuture<>();
+        CompletableFuture<Room> other = loading.putIfAbsent(roomId, mine);
+        if (other != null) return other.join();
+        try {
+            Room r = rooms.get(roomId);
+            if (r == null && dormant.contains(roomId)) {
+                r = rehydrate(roomId);
+                rooms.put(roomId, r);
+                dormant.remove(roomId);
+            }
+            mine.complete(r);
+            return r;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(roomId, mine);
+        }
     }
 
-    // create or return room and ensure default properties
+    // create or return room and ensure default properties; runs on the room's mailbox
     private Room ensureRoom(String roomId) {
-        return rooms.computeIfAbsent(roomId, (k) -> {
-            Room r = new Room(k);
-            
-            // Create REAL Monopoly board with 40 spaces (classic board layout)
-            // Bottom row (RIGHT TO LEFT): positions 0-10
-            r.properties.add(new Property(0, "GO", 0));
-            r.properties.add(new Property(1, "Mediterranean Avenue", 60));
-            r.properties.add(new Property(2, "Community Chest", 0));
-            r.properties.add(new Property(3, "Baltic Avenue", 60));
-            r.properties.add(new Property(4, "Income Tax", 200));
-            r.properties.add(new Property(5, "Reading Railroad", 200));
-            r.properties.add(new Property(6, "Oriental Avenue", 100));
-            r.properties.add(new Property(7, "Chance", 0));
-            r.properties.add(new Property(8, "Vermont Avenue", 100));
-            r.properties.add(new Property(9, "Connecticut Avenue", 120));
-            r.properties.add(new Property(10, "Just Visiting", 0));
-            
-            // Left column (BOTTOM TO TOP): positions 11-19
-            r.properties.add(new Property(11, "St. Charles Place", 140));
-            r.properties.add(new Property(12, "Electric Company", 150));
-            r.properties.add(new Property(13, "States Avenue", 140));
-            r.properties.add(new Property(14, "Virginia Avenue", 160));
-            r.properties.add(new Property(15, "Pennsylvania Railroad", 200));
-            r.properties.add(new Property(16, "St. James Place", 180));
-            r.properties.add(new Property(17, "Community Chest", 0));
-            r.properties.add(new Property(18, "Tennessee Avenue", 180));
-            r.properties.add(new Property(19, "New York Avenue", 200));
-            
-            // Top row (LEFT TO RIGHT): positions 20-30
-            r.properties.add(new Property(20, "Free Parking", 0));
-            r.properties.add(new Property(21, "Kentucky Avenue", 220));
-            r.properties.add(new Property(22, "Chance", 0));
-            r.properties.add(new Property(23, "Indiana Avenue", 220));
-            r.properties.add(new Property(24, "Illinois Avenue", 240));
-            r.properties.add(new Property(25, "B&O Railroad", 200));
-            r.properties.add(new Property(26, "Atlantic Avenue", 260));
-            r.properties.add(new Property(27, "Ventnor Avenue", 260));
-            r.properties.add(new Property(28, "Water Works", 150));
-            r.properties.add(new Property(29, "Marvin Gardens", 280));
-            r.properties.add(new Property(30, "Go To Jail", 0));
-            
-            // Right column (TOP TO BOTTOM): positions 31-39
-            r.properties.add(new Property(31, "Pacific Avenue", 300));
-            r.properties.add(new Property(32, "North Carolina Avenue", 300));
-            r.properties.add(new Property(33, "Community Chest", 0));
-            r.properties.add(new Property(34, "Pennsylvania Avenue", 320));
-            r.properties.add(new Property(35, "Short Line Railroad", 200));
-            r.properties.add(new Property(36, "Chance", 0));
-            r.properties.add(new Property(37, "Park Place", 350));
-            r.properties.add(new Property(38, "Luxury Tax", 100));
-            r.properties.add(new Property(39, "Boardwalk", 400));
-            
-            // Load settings from MongoDB lobby if it exists (but DON'T pre-populate players)
-            try {
-                Optional<Lobby> lobbyOpt = lobbyRepository.findByCode(k);
-                if (lobbyOpt.isPresent()) {
-                    Lobby lobby = lobbyOpt.get();
-                    // Set admin principal to verify later when user connects
-                    if (lobby.getAdminUsername() != null) {
-                        r.adminPrincipal = lobby.getAdminUsername();
-                    }
-                    // Set start amount from lobby
-                    if (lobby.getStartAmount() != null) {
-                        r.startAmount = lobby.getStartAmount();
-                    }
-                    // NOTE: We DON'T pre-populate players here anymore!
-                    // Players will be added dynamically when they connect via WebSocket.
-                    // This prevents duplicate player entries when users reconnect or change auth state.
+        Room existing = room(roomId);
+        if (existing != null) return existing;
+        Room r = new Room(roomId);
+        String adminPrincipal = null;
+        int startAmount = 1500;
+
+        // Load settings from MongoDB lobby if it exists (but DON'T pre-populate players)
+        try {
+            Optional<Lobby> lobbyOpt = lobbyRepository.findByCode(roomId);
+            if (lobbyOpt.isPresent()) {
+                Lobby lobby = lobbyOpt.get();
+                // Set admin principal to verify later when user connects
+                if (lobby.getAdminUsername() != null) {
+                    adminPrincipal = lobby.getAdminUsername();
                 }
-            } catch (Exception e) {
-                System.err.println("Failed to load lobby from MongoDB: " + e.getMessage());
+                // Set start amount from lobby
+                if (lobby.getStartAmount() != null) {
+                    startAmount = lobby.getStartAmount();
+                }
+                lobbySettings(r, lobby);
+                // NOTE: We DON'T pre-populate players here anymore!
+                // Players will be added dynamically when they connect via WebSocket.
+                // This prevents duplicate player entries when users reconnect or change auth state.
             }
-            
-            return r;
-        });
+        } catch (Exception e) {
+            System.err.println("Failed to load lobby from MongoDB: " + e.getMessage());
+        }
+
+        // createLobby may have claimed the code meanwhile; its room is the one
+        Room raced = rooms.putIfAbsent(roomId, r);
+        if (raced != null) return raced;
+        emit(r, new GameEvent.RoomCreated("classic", adminPrincipal, startAmount, tokens.nextLong()));
+        return r;
     }
 
     // add player to a specific room
     public String addPlayer(WebSocketSession session, String name, String preferredId, String roomId) {
         Room room = ensureRoom(roomId);
-        boolean exists = preferredId != null && room.players.containsKey(preferredId);
-        if (!exists && room.players.size() >= 4) return null;
+        RoomState st = room.state();
+        int seat = st.seatOf(preferredId);
+        if (seat < 0 && st.playerCount() >= RoomState.MAX_SEATS) return null;
         String id = preferredId != null ? preferredId : UUID.randomUUID().toString();
-        Player p = room.players.get(id);
-        if (p == null) {
-            // New player joining
-            p = new Player(id, name);
-            // apply room startAmount as starting money
-            p.money = room.startAmount;
-            room.players.put(id, p);
+        if (seat < 0) {
+            // New player joining, with the room startAmount as starting money (not ready yet)
+            emit(room, new GameEvent.PlayerJoined(id, name, st.startAmount, false));
+            st = room.state();
             // set admin to the first creator if not set
-            if (room.adminId == null) room.adminId = id;
+            String adminId = st.adminId != null ? st.adminId : id;
+            String adminPrincipal = st.adminPrincipal;
             // if the room had a reserved admin principal, and this session matches it, assign admin to this player id
             try {
                 Object principalObj = session.getPrincipal();
-                if (room.adminPrincipal != null && principalObj instanceof java.security.Principal) {
+                if (st.adminPrincipal != null && principalObj instanceof java.security.Principal) {
                     java.security.Principal princ = (java.security.Principal) principalObj;
-                    if (princ.getName() != null && princ.getName().equals(room.adminPrincipal)) {
-                        room.adminId = id;
-                        room.adminPrincipal = null;
+                    if (princ.getName() != null && princ.getName().equals(st.adminPrincipal)) {
+                        adminId = id;
+                        adminPrincipal = null;
                     }
                 }
             } catch (Exception ignored) {}
-            // Initialize ready state for new player
-            room.readyStates.put(id, false);
+            if (!adminId.equals(st.adminId) || !Objects.equals(adminPrincipal, st.adminPrincipal)) {
+                emit(room, new GameEvent.AdminChanged(adminId, adminPrincipal));
+            }
         } else {
             // Existing player reconnecting - don't reset their ready state
-            System.out.println("Player " + id + " reconnecting, preserving ready state: " + room.readyStates.getOrDefault(id, false));
+            System.out.println("Player " + id + " reconnecting, preserving ready state: " + st.isReady(seat));
+            room.away.remove(id);
         }
-        room.sessions.put(session.getId(), session);
-        session.getAttributes().put("playerId", id);
-        session.getAttributes().put("roomId", roomId);
-        saveState();
+        registry.bind(session, room, id);
         return id;
     }
 
     // add bot to a specific room (admin only)
     public String addBot(WebSocketSession session, String botName, String roomId) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        
-        System.out.println("addBot called: roomId from session=" + rid + ", playerId=" + pid);
-        
-        if (rid == null || pid == null) {
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) {
             System.out.println("addBot failed: roomId or playerId is null");
             return null;
         }
+        Room room = bound.room();
+        RoomState st = room.state();
         
-        Room room = rooms.get((String) rid);
-        if (room == null) {
-            System.out.println("addBot failed: room not found");
-            return null;
-        }
-        
-        System.out.println("Room found. adminId=" + room.adminId + ", adminPrincipal=" + room.adminPrincipal + ", players=" + room.players.size());
+        System.out.println("Room found. adminId=" + st.adminId + ", adminPrincipal=" + st.adminPrincipal + ", players=" + st.playerCount());
         
         // Check if requester is admin - check both playerId and principal name
-        String requesterId = (String) pid;
-        boolean isAdmin = requesterId.equals(room.adminId);
+        String requesterId = bound.playerId();
+        boolean isAdmin = requesterId.equals(st.adminId);
         
         // Also check if the session's principal matches adminPrincipal or adminId
         if (!isAdmin) {
@@ -224,12 +246,11 @@ public class GameService {
                 Object principalObj = session.getPrincipal();
                 if (principalObj instanceof java.security.Principal) {
                     String principalName = ((java.security.Principal) principalObj).getName();
-                    System.out.println("Checking principal: " + principalName + " against adminId=" + room.adminId + ", adminPrincipal=" + room.adminPrincipal);
-                    if (principalName != null && (principalName.equals(room.adminId) || principalName.equals(room.adminPrincipal))) {
+                    System.out.println("Checking principal: " + principalName + " against adminId=" + st.adminId + ", adminPrincipal=" + st.adminPrincipal);
+                    if (principalName != null && (principalName.equals(st.adminId) || principalName.equals(st.adminPrincipal))) {
                         isAdmin = true;
                         // Update adminId to match the current player's ID for future checks
-                        room.adminId = requesterId;
-                        room.adminPrincipal = null;
+                        emit(room, new GameEvent.AdminChanged(requesterId, null));
                         System.out.println("Admin verified via principal, updated adminId to: " + requesterId);
                     }
                 }
@@ -239,567 +260,1107 @@ public class GameService {
         }
         
         if (!isAdmin) {
-            System.out.println("addBot failed: requester " + requesterId + " is not admin " + room.adminId);
+            System.out.println("addBot failed: requester " + requesterId + " is not admin " + st.adminId);
             return null;
         }
         
         // Check if room is full
-        if (room.players.size() >= 4) {
+        if (st.playerCount() >= RoomState.MAX_SEATS) {
             System.out.println("addBot failed: room is full");
             return null;
         }
         
         // Create bot with unique ID
         String botId = "bot_" + UUID.randomUUID().toString().substring(0, 8);
-        Player bot = new Player(botId, botName);
-        bot.money = room.startAmount;
-        room.players.put(botId, bot);
-        room.readyStates.put(botId, true); // Bots are always ready
-        
-        System.out.println("Bot added successfully: " + botId + " (" + botName + "), now " + room.players.size() + " players");
-        
-        saveState();
+        emit(room, new GameEvent.PlayerJoined(botId, botName, st.startAmount, true)); // Bots are always ready
+
+        System.out.println("Bot added successfully: " + botId + " (" + botName + "), now " + room.state().playerCount() + " players");
+
         return botId;
     }
 
+    // A player whose last session closes keeps the seat for the resume grace period, then leaves.
     public void removeSession(WebSocketSession session) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        if (rid == null) return;
-        Room room = rooms.get((String) rid);
-        if (room == null) return;
-        if (pid != null) room.players.remove((String) pid);
-        if (pid != null) room.readyStates.remove((String) pid);
-        room.sessions.remove(session.getId());
-        // if admin left, assign new admin (first player) or null
-        if (pid != null && ((String) pid).equals(room.adminId)) {
-            String newAdmin = null;
-            for (String k : room.players.keySet()) { newAdmin = k; break; }
-            room.adminId = newAdmin;
+        SessionRegistry.Binding bound = registry.unbind(session);
+        if (bound == null) return;
+        Room room = bound.room();
+        String id = bound.playerId();
+        if (room.state().seatOf(id) < 0 || registry.isConnected(room.id, id)) return;
+        if (resumeGraceMs <= 0) {
+            leave(room, id);
+            return;
         }
-        saveState();
+        long since = System.nanoTime();
+        room.away.put(id, since);
+        executor.schedule(room.id, resumeGraceMs, () -> {
+            // still away since this close, not back or gone again later
+            if (!Objects.equals(room.away.get(id), since)) return;
+            room.away.remove(id);
+            if (room.state().seatOf(id) < 0) return;
+            leave(room, id);
+            broadcastState(room);
+        });
     }
 
-    public void setReadyForSession(WebSocketSession session, boolean ready) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        if (rid == null || pid == null) return;
-        Room room = rooms.get((String) rid);
-        if (room == null) return;
-        String id = (String) pid;
-        if (!room.players.containsKey(id)) return;
-        room.readyStates.put(id, ready);
-        // auto-start when 4 players present and all ready
-        if (room.players.size() >= 4) {
-            boolean allReady = true;
-            for (String k : room.players.keySet()) {
-                if (!room.readyStates.getOrDefault(k, false)) { allReady = false; break; }
-            }
-            if (allReady) {
-                room.started = true;
-                // Initialize turn to first player
-                if (room.currentTurn == null && !room.players.isEmpty()) {
-                    room.currentTurn = room.players.keySet().iterator().next();
-                    room.turnIndex = 0;
-                }
-            }
+    /**
+     * Rebind a reconnected session to the seat its resume token was issued for.
+     * The session is marked as having seen {@code version}, so the next broadcast
+     * sends it a patch from there, or the full state if that version is no longer
+     * in the room's history. Returns the player id, null if the token is not valid
+     * (the seat is gone); the client then joins again.
+     */
+    public String resume(WebSocketSession session, String roomId, String token, long version) {
+        Room room = room(roomId);
+        if (room == null) return null;
+        String id = room.resumeTokens.get(token);
+        if (id == null || room.state().seatOf(id) < 0) return null;
+        room.away.remove(id);
+        registry.bind(session, room, id);
+        RoomState seen = room.recent(version);
+        if (seen != null) session.getAttributes().put(SEEN_STATE, seen);
+        else session.getAttributes().remove(SEEN_STATE);
+        return id;
+    }
+
+    /** The token that lets the session's player reclaim its seat after a reconnect, issued on first use. */
+    public String resumeToken(WebSocketSession session) {
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return null;
+        Room room = bound.room();
+        for (Map.Entry<String, String> e : room.resumeTokens.entrySet()) {
+            if (e.getValue().equals(bound.playerId())) return e.getKey();
         }
-        if (!ready) room.started = false;
-        saveState();
+        byte[] b = new byte[18];
+        tokens.nextBytes(b);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(b);
+        room.resumeTokens.put(token, bound.playerId());
+        return token;
+    }
+
+    private void leave(Room room, String playerId) {
+        emit(room, new GameEvent.PlayerLeft(playerId));
+        room.resumeTokens.values().remove(playerId);
+    }
+
+    public void setReadyForSession(WebSocketSession session, boolean ready) {
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return;
+        Room room = bound.room();
+        RoomState st = room.state();
+        String id = bound.playerId();
+        if (st.seatOf(id) < 0) return;
+        emit(room, new GameEvent.ReadyChanged(id, ready));
     }
 
     public int rollForSession(WebSocketSession session) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        if (rid == null || pid == null) return -1;
-        Room room = rooms.get((String) rid);
-        if (room == null) return -1;
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return -1;
+        return roll(bound.room(), bound.playerId());
+    }
+
+    // a player's roll, from their command or from their turn clock running out
+    private int roll(Room room, String playerId) {
+        RoomState st = room.state();
         
         // Check if it's this player's turn
-        String playerId = (String) pid;
-        if (room.currentTurn != null && !room.currentTurn.equals(playerId)) {
+        if (st.turnSeat >= 0 && !playerId.equals(st.currentTurn())) {
             return -1; // Not your turn
         }
         
-        Player p = room.players.get(playerId);
-        if (p == null) return -1;
-        int dice = 1 + new Random().nextInt(6);
-        int boardSize = room.properties.isEmpty() ? 12 : room.properties.size();
-        p.pos = (p.pos + dice) % boardSize;
-        room.lastMove = Map.of("playerId", p.id, "dice", dice);
-        
-        // Advance to next player's turn
-        advanceTurn(room);
-        
-        saveState();
+        if (st.seatOf(playerId) < 0) return -1;
+        int dice = RoomRandom.dice(st.seed, st.rolls);
+        // moves the player and advances to next player's turn
+        emit(room, new GameEvent.Rolled(playerId, dice, false));
         return dice;
     }
 
     public Map<String,Object> buyForSession(WebSocketSession session) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        if (rid == null || pid == null) return Map.of("success", false, "message", "not-joined");
-        Room room = rooms.get((String) rid);
-        if (room == null) return Map.of("success", false, "message", "no-room");
-        Player p = room.players.get((String) pid);
-        if (p == null) return Map.of("success", false, "message", "no-player");
-        if (room.properties.isEmpty()) return Map.of("success", false, "message", "no-properties");
-        int pos = p.pos % room.properties.size();
-        Property prop = room.properties.get(pos);
-        if (prop.ownerId != null) return Map.of("success", false, "message", "already-owned");
-        if (p.money < prop.cost) return Map.of("success", false, "message", "insufficient-funds");
-        p.money -= prop.cost;
-        prop.ownerId = p.id;
-        saveState();
-        return Map.of("success", true, "message", "bought", "propertyId", prop.id);
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return Map.of("success", false, "message", "not-joined");
+        Room room = bound.room();
+        RoomState st = room.state();
+        int seat = st.seatOf(bound.playerId());
+        if (seat < 0) return Map.of("success", false, "message", "no-player");
+        int pos = st.pos[seat] % st.board.size();
+        String refused = GameRules.refuseBuy(st, seat, pos);
+        if (refused != null) return Map.of("success", false, "message", refused);
+        emit(room, new GameEvent.Bought(bound.playerId(), pos, st.board.cost(pos)));
+        return Map.of("success", true, "message", "bought", "propertyId", pos);
     }
 
     public Map<String,Object> getStateForRoom(WebSocketSession session) {
         Object rid = session.getAttributes().get("roomId");
         if (rid == null) return Map.of("players", List.of(), "properties", List.of(), "lastMove", Map.of(), "started", false);
-        Room room = rooms.get((String) rid);
-        if (room == null) return Map.of("players", List.of(), "properties", List.of(), "lastMove", Map.of(), "started", false);
-        List<Map<String,Object>> playersWithMoney = new ArrayList<>();
-        for (Player p : room.players.values()) {
-            boolean ready = room.readyStates.getOrDefault(p.id, false);
-            playersWithMoney.add(Map.of("id", p.id, "name", p.name, "pos", p.pos, "money", p.money, "ready", ready));
+        return getStateForRoomId((String) rid);
+    }
+
+    // send the full state to one session, for joins and for clients that lost track of the version
+    public void sendState(WebSocketSession session) {
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return;
+        Room room = bound.room();
+        try {
+            WebSocketMessage<?> full = fullStateFor(room, session);
+            sender.sendState(session, full, () -> full);
+            session.getAttributes().put(SEEN_STATE, room.state());
+        } catch (Exception e) {
+            log.warn("Could not send the state of room {} to session {}", room.id, session.getId(), e);
         }
-        List<Map<String,Object>> props = new ArrayList<>();
-        for (Property pr : room.properties) {
-            Map<String,Object> propMap = new HashMap<>();
-            propMap.put("id", pr.id);
-            propMap.put("name", pr.name);
-            propMap.put("cost", pr.cost);
-            propMap.put("ownerId", pr.ownerId); // can be null
-            props.add(propMap);
+    }
+
+    // full state frame of the room's current version in the session's protocol
+    private WebSocketMessage<?> fullStateFor(Room room, WebSocketSession session) {
+        try {
+            Room.StateFrame f = stateFrame(room);
+            return BinaryProtocol.isBinary(session) ? new BinaryMessage(f.binary()) : f.message();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        Map<String,Object> result = new HashMap<>();
-        result.put("players", playersWithMoney);
-        result.put("properties", props);
-        result.put("lastMove", room.lastMove);
-        result.put("started", room.started);
-        result.put("adminId", room.adminId);
-        result.put("startAmount", room.startAmount);
-        result.put("currentTurn", room.currentTurn);
-        return result;
+    }
+
+    // client state JSON for REST reads, null if there is no such room
+    public byte[] getStateJson(String roomId) throws IOException {
+        Room room = room(roomId);
+        return room == null ? null : stateFrame(room).payload();
+    }
+
+    // the current version's full state, encoded on first use and then shared by every caller at that version
+    private Room.StateFrame stateFrame(Room room) throws IOException {
+        RoomState st = room.state();
+        Room.StateFrame f = room.frame();
+        if (f != null && f.version() == st.seq) return f;
+        byte[] payload = mapper.writeValueAsBytes(stateViewOf(st));
+        byte[] head = "{\"type\":\"state\",\"payload\":".getBytes(StandardCharsets.UTF_8);
+        byte[] frame = Arrays.copyOf(head, head.length + payload.length + 1);
+        System.arraycopy(payload, 0, frame, head.length, payload.length);
+        frame[frame.length - 1] = '}';
+        return room.cacheFrame(new Room.StateFrame(st.seq, payload, new TextMessage(frame), BinaryProtocol.encodeState(st)));
     }
 
     public boolean kickPlayer(WebSocketSession session, String targetPlayerId) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        if (rid == null || pid == null) return false;
-        Room room = rooms.get((String) rid);
-        if (room == null) return false;
-        String requester = (String) pid;
-        if (room.adminId == null || !room.adminId.equals(requester)) return false;
-        if (!room.players.containsKey(targetPlayerId)) return false;
-        // remove player
-        room.players.remove(targetPlayerId);
-        room.readyStates.remove(targetPlayerId);
-        // close their session if present
-        WebSocketSession targetSession = null;
-        for (WebSocketSession s : room.sessions.values()) {
-            Object opid = s.getAttributes().get("playerId");
-            if (opid != null && opid.equals(targetPlayerId)) { targetSession = s; break; }
-        }
-        if (targetSession != null) {
-            try { targetSession.close(); } catch (Exception ignored) {}
-            room.sessions.remove(targetSession.getId());
-        }
-        // ensure admin still valid
-        if (!room.players.containsKey(room.adminId)) {
-            String newAdmin = null; for (String k : room.players.keySet()) { newAdmin = k; break; }
-            room.adminId = newAdmin;
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return false;
+        Room room = bound.room();
+        RoomState st = room.state();
+        String requester = bound.playerId();
+        if (st.adminId == null || !st.adminId.equals(requester)) return false;
+        if (st.seatOf(targetPlayerId) < 0) return false;
+        // remove player (and hand admin to the first remaining player if needed)
+        emit(room, new GameEvent.Kicked(targetPlayerId));
+        room.resumeTokens.values().remove(targetPlayerId);
+        room.away.remove(targetPlayerId);
+        // close every session they have open
+        for (WebSocketSession s : registry.unbindPlayer(room.id, targetPlayerId)) {
+            try { s.close(); } catch (Exception ignored) {}
         }
-        saveState();
         return true;
     }
 
     public boolean setStartAmount(WebSocketSession session, int amount) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        if (rid == null || pid == null) return false;
-        Room room = rooms.get((String) rid);
-        if (room == null) return false;
-        String requester = (String) pid;
-        if (room.adminId == null || !room.adminId.equals(requester)) return false;
-        room.startAmount = amount;
-        // update all players' money to the new start amount
-        for (Player p : room.players.values()) p.money = amount;
-        saveState();
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return false;
+        Room room = bound.room();
+        RoomState st = room.state();
+        String requester = bound.playerId();
+        if (st.adminId == null || !st.adminId.equals(requester)) return false;
+        // also resets all players' money to the new start amount
+        emit(room, new GameEvent.StartAmountChanged(amount));
         return true;
     }
 
     public boolean startForSession(WebSocketSession session) {
-        Object rid = session.getAttributes().get("roomId");
-        Object pid = session.getAttributes().get("playerId");
-        if (rid == null || pid == null) return false;
-        Room room = rooms.get((String) rid);
-        if (room == null) return false;
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return false;
+        Room room = bound.room();
+        RoomState st = room.state();
         
-        String requesterId = (String) pid;
+        String requesterId = bound.playerId();
         // Only admin can start the game
-        if (room.adminId == null || !room.adminId.equals(requesterId)) {
-            System.out.println("startForSession failed: requester " + requesterId + " is not admin " + room.adminId);
+        if (st.adminId == null || !st.adminId.equals(requesterId)) {
+            System.out.println("startForSession failed: requester " + requesterId + " is not admin " + st.adminId);
             return false;
         }
         
         // Need at least 2 players to start
-        if (room.players.size() < 2) {
-            System.out.println("startForSession failed: need at least 2 players, have " + room.players.size());
+        if (st.playerCount() < 2) {
+            System.out.println("startForSession failed: need at least 2 players, have " + st.playerCount());
             return false;
         }
         
-        room.started = true;
-        // Initialize turn to first player when starting
-        if (room.currentTurn == null && !room.players.isEmpty()) {
-            room.currentTurn = room.players.keySet().iterator().next();
-            room.turnIndex = 0;
-        }
+        emit(room, new GameEvent.Started());
         System.out.println("Game started in room " + room.id + " by admin " + requesterId);
-        saveState();
         return true;
     }
 
-    // Advance to next player's turn
-    private void advanceTurn(Room room) {
-        if (room.players.isEmpty()) return;
-        List<String> playerIds = new ArrayList<>(room.players.keySet());
-        room.turnIndex = (room.turnIndex + 1) % playerIds.size();
-        room.currentTurn = playerIds.get(room.turnIndex);
+    private static boolean botToMove(RoomState st) {
+        String turn = st.started ? st.currentTurn() : null;
+        return turn != null && turn.startsWith("bot_");
+    }
+
+    // a roll or skip always ends a turn, even when it comes back to the same seat
+    private static boolean turnPassed(RoomState before, RoomState after, GameEvent event) {
+        return event instanceof GameEvent.Rolled || event instanceof GameEvent.TurnSkipped || before.started != after.started
+                || !Objects.equals(before.currentTurn(), after.currentTurn());
+    }
+
+    // Play the bot whose turn it is after the room's think delay. At most one turn is pending per
+    // room; it plays whichever bot holds the turn when it fires, so kicks and leaves in between are fine.
+    private void scheduleBotTurn(Room room) {
+        if (room.botTurnPending) return;
+        room.botTurnPending = true;
+        executor.schedule(room.id, room.botThinkMs >= 0 ? room.botThinkMs : botThinkMs, () -> {
+            room.botTurnPending = false;
+            RoomState st = room.state();
+            if (botToMove(st)) botTakeTurn(room.id, st.currentTurn());
+        });
+    }
+
+    // Give the human whose turn it is a deadline; when it passes they roll (or are skipped) as if they had.
+    // Re-armed on every change of turn, which cancels the previous clock.
+    private void startTurnClock(Room room, RoomState st) {
+        TurnClock old = turnClocks.remove(room.id);
+        if (old != null) old.timeout().cancel();
+        String playerId = st.started ? st.currentTurn() : null;
+        long timeout = room.turnTimeoutMs >= 0 ? room.turnTimeoutMs : turnTimeoutMs;
+        if (playerId == null || playerId.startsWith("bot_") || timeout <= 0) return;
+        long armedAt = st.seq;
+        TimingWheel.Timeout t = executor.schedule(room.id, timeout, () -> {
+            // a clock cancelled after it fired may still be queued; only the current one counts
+            TurnClock clock = turnClocks.get(room.id);
+            if (clock == null || clock.armedAt() != armedAt) return;
+            turnClocks.remove(room.id);
+            RoomState now = room.state();
+            if (!now.started || !playerId.equals(now.currentTurn())) return;
+            log.info("Turn of {} in room {} timed out after {} ms", playerId, room.id, timeout);
+            if (autoRollOnTimeout) roll(room, playerId);
+            else emit(room, new GameEvent.TurnSkipped(playerId));
+            broadcastState(room);
+        });
+        turnClocks.put(room.id, new TurnClock(armedAt, t));
+    }
+
+    private record TurnClock(long armedAt, TimingWheel.Timeout timeout) {}
+
+    // a room loaded mid-game: the bot or clock of whoever holds the turn starts again
+    private void resumeTimers(Room room) {
+        RoomState st = room.state();
+        if (botToMove(st)) scheduleBotTurn(room);
+        startTurnClock(room, st);
+    }
+
+    private static void lobbySettings(Room room, Lobby lobby) {
+        if (lobby.getBotThinkMs() != null) room.botThinkMs = lobby.getBotThinkMs();
+        if (lobby.getTurnTimeoutMs() != null) room.turnTimeoutMs = lobby.getTurnTimeoutMs();
+    }
+
+    /** Change the turn clock of a loaded room, starting over for the current turn; -1 restores the server default. */
+    public void setTurnTimeoutMs(String roomId, long ms) {
+        executor.execute(roomId, () -> {
+            Room room = room(roomId);
+            if (room == null) return;
+            room.turnTimeoutMs = ms;
+            startTurnClock(room, room.state());
+        });
+    }
+
+    /** Change how long bots in a loaded room wait before playing; -1 restores the server default. */
+    public void setBotThinkMs(String roomId, long ms) {
+        executor.execute(roomId, () -> {
+            Room room = room(roomId);
+            if (room != null) room.botThinkMs = ms;
+        });
     }
 
     // Bot AI: Make a turn for a bot player
     public void botTakeTurn(String roomId, String botId) {
-        Room room = rooms.get(roomId);
-        if (room == null || !room.started) return;
+        Room room = room(roomId);
+        if (room == null) return;
+        RoomState st = room.state();
+        if (!st.started) return;
         
         // Verify it's the bot's turn
-        if (!botId.equals(room.currentTurn)) return;
+        if (!botId.equals(st.currentTurn())) return;
         
-        Player bot = room.players.get(botId);
-        if (bot == null) return;
+        int bot = st.seatOf(botId);
+        if (bot < 0) return;
         
-        // Roll dice
-        int dice = 1 + new Random().nextInt(6);
-        int boardSize = room.properties.isEmpty() ? 12 : room.properties.size();
-        bot.pos = (bot.pos + dice) % boardSize;
-        room.lastMove = Map.of("playerId", bot.id, "dice", dice, "bot", true);
-        
-        // Simple AI: Try to buy property if it's affordable and unowned
-        if (!room.properties.isEmpty()) {
-            int pos = bot.pos % room.properties.size();
-            Property prop = room.properties.get(pos);
-            
-            // Buy if affordable and unowned
-            if (prop.ownerId == null && bot.money >= prop.cost) {
-                // Random decision: 70% chance to buy
-                if (new Random().nextInt(100) < 70) {
-                    bot.money -= prop.cost;
-                    prop.ownerId = bot.id;
+        // Roll dice (moves the bot and advances to next turn)
+        int dice = RoomRandom.dice(st.seed, st.rolls);
+        emit(room, new GameEvent.Rolled(botId, dice, true));
+        st = room.state();
+
+        int pos = st.pos[bot] % st.board.size();
+        String ownerId = st.ownerOf(pos);
+
+        // Ask the strategy whether to buy; it may think for a while off the mailbox, so the answer comes back
+        // as a task of its own and only counts if nobody has rolled since and the tile is still there to buy
+        if (GameRules.refuseBuy(st, bot, pos) == null) {
+            long rolls = st.rolls;
+            botStrategy.shouldBuy(st, bot).whenComplete((buy, err) -> {
+                if (err != null) {
+                    log.warn("Bot {} in room {} could not decide: {}", botId, roomId, err.getMessage());
+                } else if (buy) {
+                    executor.execute(roomId, () -> botBuy(room, botId, pos, rolls));
                 }
-            }
-            // Pay rent if owned by someone else
-            else if (prop.ownerId != null && !prop.ownerId.equals(bot.id)) {
-                Player owner = room.players.get(prop.ownerId);
-                if (owner != null) {
-                    int rent = prop.cost / 10; // Simple rent calculation
-                    if (bot.money >= rent) {
-                        bot.money -= rent;
-                        owner.money += rent;
-                    }
+            });
+        }
+        // Pay rent if owned by someone else
+        else if (ownerId != null && !ownerId.equals(botId)) {
+            if (st.seatOf(ownerId) >= 0) {
+                int rent = GameRules.rent(st.board, pos);
+                if (st.money[bot] >= rent) {
+                    emit(room, new GameEvent.RentPaid(botId, ownerId, pos, rent));
                 }
             }
         }
-        
-        // Advance to next turn
-        advanceTurn(room);
-        saveState();
-        
+
         // Broadcast state to all players in room
-        try {
-            String stateJson = mapper.writeValueAsString(Map.of("type", "state", "payload", getStateForRoomId(roomId)));
-            for (WebSocketSession s : room.sessions.values()) {
-                if (s.isOpen()) {
-                    s.sendMessage(new TextMessage(stateJson));
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        broadcastState(room);
+    }
+
+    // the answer to a question asked after roll number rolls: stale once anyone has rolled again
+    private void botBuy(Room room, String botId, int tile, long rolls) {
+        RoomState st = room.state();
+        int bot = st.seatOf(botId);
+        if (st.rolls != rolls || bot < 0 || st.pos[bot] != tile) {
+            log.debug("Bot {} in room {} decided too late to buy tile {}", botId, room.id, tile);
+            return;
         }
+        if (GameRules.refuseBuy(st, bot, tile) != null) return;
+        emit(room, new GameEvent.Bought(botId, tile, st.board.cost(tile)));
+        broadcastState(room);
     }
 
     // Get state for a room by ID (helper for bot AI)
     private Map<String, Object> getStateForRoomId(String roomId) {
-        Room room = rooms.get(roomId);
+        Room room = room(roomId);
         if (room == null) return Map.of("players", List.of(), "properties", List.of(), "lastMove", Map.of(), "started", false);
-        
-        List<Map<String,Object>> playersWithMoney = new ArrayList<>();
-        for (Player p : room.players.values()) {
-            boolean ready = room.readyStates.getOrDefault(p.id, false);
-            playersWithMoney.add(Map.of("id", p.id, "name", p.name, "pos", p.pos, "money", p.money, "ready", ready));
-        }
-        List<Map<String,Object>> props = new ArrayList<>();
-        for (Property pr : room.properties) {
-            props.add(Map.of("id", pr.id, "name", pr.name, "cost", pr.cost, "ownerId", pr.ownerId));
-        }
-        return Map.of("players", playersWithMoney, "properties", props, "lastMove", room.lastMove, "started", room.started, "adminId", room.adminId, "startAmount", room.startAmount, "currentTurn", room.currentTurn);
-    }
-
-    // Process all rooms and trigger bot turns if needed
-    public void processBotTurns() {
-        for (Map.Entry<String, Room> entry : rooms.entrySet()) {
-            Room room = entry.getValue();
-            if (!room.started || room.currentTurn == null) continue;
-            
-            // Check if current turn belongs to a bot
-            if (room.currentTurn.startsWith("bot_")) {
-                botTakeTurn(entry.getKey(), room.currentTurn);
-            }
-        }
+        return stateViewOf(room.state());
     }
 
     public void broadcastToRoom(WebSocketSession session, String text) {
-        Object rid = session.getAttributes().get("roomId");
-        if (rid == null) return;
-        Room room = rooms.get((String) rid);
-        if (room == null) return;
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null) return;
+        Room room = bound.room();
+        TextMessage message = new TextMessage(text);
         for (WebSocketSession s : room.sessions.values()) {
-            if (s.isOpen()) {
-                try { s.sendMessage(new TextMessage(text)); } catch (IOException e) { e.printStackTrace(); }
-            }
+            sender.send(s, message);
         }
     }
     
+    // player in a seat of the session's room, for the binary protocol which names players by seat
+    public String getPlayerIdAtSeat(WebSocketSession session, int seat) {
+        SessionRegistry.Binding bound = registry.binding(session);
+        if (bound == null || seat < 0 || seat >= RoomState.MAX_SEATS) return null;
+        return bound.room().state().seatIds[seat];
+    }
+
     public String getPlayerIdForSession(WebSocketSession session) {
-        Object rid = session.getAttributes().get("roomId");
-        if (rid == null) return null;
-        Room room = rooms.get((String) rid);
-        if (room == null) return null;
-        
-        // Find the player associated with this session
-        for (Map.Entry<String, WebSocketSession> entry : room.sessions.entrySet()) {
-            if (entry.getValue().getId().equals(session.getId())) {
-                return entry.getKey();
+        return registry.playerId(session);
+    }
+
+    public void broadcastState(String roomId) {
+        broadcastState(roomId, null, null, null);
+    }
+
+    /**
+     * Bring every session of the room up to the current version, and hand {@code issuer} the
+     * result of its command in the same frame. With nothing new to send, or when the issuer
+     * is not in the room (a failed join), the result goes out on its own.
+     */
+    public void broadcastState(String roomId, WebSocketSession issuer, String resultType, Map<String, ?> result) {
+        Room room = room(roomId);
+        boolean replied = room != null && broadcastState(room, false, issuer, resultType, result);
+        if (!replied && issuer != null && resultType != null) {
+            try {
+                sender.send(issuer, withResult(null, issuer, resultType, result));
+            } catch (Exception e) {
+                e.printStackTrace();
             }
         }
-        return null;
     }
-    
+
     private void broadcastState(Room room) {
+        broadcastState(room, false, null, null, null);
+    }
+
+    // Turn changes and game start go out at once; anything else may wait for the room's broadcast tick.
+    private static boolean urgent(RoomState sent, RoomState st) {
+        return sent == null || sent.turnSeat != st.turnSeat || sent.started != st.started;
+    }
+
+    // Each session gets a patch from the version it last saw (the full state if it has seen none).
+    // With a broadcast tick, non-urgent changes only reach the issuer now and everyone else on the tick.
+    // Runs on the room's mailbox. Returns whether the issuer's result was sent.
+    private boolean broadcastState(Room room, boolean tick, WebSocketSession issuer, String resultType, Map<String, ?> result) {
+        RoomState st = room.state();
+        boolean everyone = tick || broadcastTickMs <= 0 || urgent(room.sent, st);
+        if (!everyone && room.sent != st && !room.flushScheduled) {
+            room.flushScheduled = true;
+            executor.schedule(room.id, broadcastTickMs, () -> {
+                room.flushScheduled = false;
+                broadcastState(room, true, null, null, null);
+            });
+        }
+        boolean replied = false;
         try {
-            Map<String, Object> state = getStateForRoomId(room.id);
-            String text = mapper.writeValueAsString(Map.of("type", "state", "payload", state));
+            // patches by the version they start from, each encoding built on first use
+            Map<RoomState, TextMessage> textPatches = new IdentityHashMap<>(2);
+            Map<RoomState, byte[]> binaryPatches = new IdentityHashMap<>(2);
             for (WebSocketSession s : room.sessions.values()) {
-                if (s.isOpen()) {
-                    try { 
-                        s.sendMessage(new TextMessage(text)); 
-                    } catch (IOException e) { 
-                        e.printStackTrace(); 
+                boolean mine = resultType != null && issuer != null && s.getId().equals(issuer.getId());
+                if (!everyone && !mine) continue;
+                RoomState seen = s.getAttributes().get(SEEN_STATE) instanceof RoomState v ? v : null;
+                if (seen == st && !mine) continue;
+                WebSocketMessage<?> m = null;
+                boolean binary = BinaryProtocol.isBinary(s);
+                if (seen != st) {
+                    if (seen == null) {
+                        m = fullStateFor(room, s);
+                    } else if (binary) {
+                        m = new BinaryMessage(binaryPatches.computeIfAbsent(seen, from -> BinaryProtocol.encodePatch(from, st)));
+                    } else {
+                        TextMessage patch = textPatches.get(seen);
+                        if (patch == null) {
+                            patch = new TextMessage(mapper.writeValueAsBytes(Map.of("type", "patch", "payload", patchOf(seen, st))));
+                            textPatches.put(seen, patch);
+                        }
+                        m = patch;
                     }
+                    s.getAttributes().put(SEEN_STATE, st);
+                }
+                if (mine) {
+                    // carries a result, so it is never conflated away
+                    sender.send(s, withResult(m, s, resultType, result));
+                    replied = true;
+                } else {
+                    // a lagging session may get the full state of this version instead
+                    sender.sendState(s, m, () -> fullStateFor(room, s));
                 }
             }
+            if (everyone) room.sent = st;
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return replied;
     }
 
-    private synchronized void saveState() {
-        try {
-            Map<String,Object> out = new HashMap<>();
-            Map<String,Object> roomsOut = new HashMap<>();
-            for (Map.Entry<String, Room> en : rooms.entrySet()) {
-                Room r = en.getValue();
-                Map<String,Object> ro = new HashMap<>();
-                ro.put("players", getPlayerPersistListForRoom(r));
-                ro.put("properties", getPropertyPersistListForRoom(r));
-                ro.put("lastMove", r.lastMove);
-                ro.put("started", r.started);
-                ro.put("adminId", r.adminId);
-                ro.put("adminPrincipal", r.adminPrincipal);
-                ro.put("startAmount", r.startAmount);
-                roomsOut.put(en.getKey(), ro);
+    // append a command result to a state or patch frame (or send it alone when frame is null)
+    private WebSocketMessage<?> withResult(WebSocketMessage<?> frame, WebSocketSession session, String type, Map<String, ?> result) throws IOException {
+        if (BinaryProtocol.isBinary(session)) {
+            byte[] reply = BinaryProtocol.encodeReply(type, result);
+            if (reply != null) {
+                if (frame == null) return new BinaryMessage(reply);
+                byte[] head = ((BinaryMessage) frame).getPayload().array();
+                byte[] out = Arrays.copyOf(head, head.length + reply.length);
+                System.arraycopy(reply, 0, out, head.length, reply.length);
+                return new BinaryMessage(out);
+            }
+        }
+        byte[] reply = mapper.writeValueAsBytes(Map.of("type", type, "payload", result));
+        if (frame == null || frame instanceof BinaryMessage) {
+            // a binary session whose result has no binary form gets it as text after the frame
+            if (frame != null) sender.send(session, frame);
+            return new TextMessage(reply);
+        }
+        // {"type":"patch","payload":{...}} -> {"type":"patch","payload":{...},"result":{"type":...,"payload":...}}
+        byte[] head = ((TextMessage) frame).asBytes();
+        byte[] key = ",\"result\":".getBytes(StandardCharsets.UTF_8);
+        byte[] out = Arrays.copyOf(head, head.length - 1 + key.length + reply.length + 1);
+        System.arraycopy(key, 0, out, head.length - 1, key.length);
+        System.arraycopy(reply, 0, out, head.length - 1 + key.length, reply.length);
+        out[out.length - 1] = '}';
+        return new TextMessage(out);
+    }
+
+    // apply an event to the room and queue it for the room's journal (written in the background)
+    private void emit(Room room, GameEvent event) {
+        // copy-on-write: readers keep the version they hold, the new one is published in a single step.
+        // Commands run on the room's mailbox so the CAS does not contend, and journal order is seq order.
+        RoomState current, next;
+        while (true) {
+            current = room.state();
+            next = current.copy();
+            apply(next, event);
+            next.seq = current.seq + 1;
+            if (room.publish(current, next)) break;
+        }
+        if (turnPassed(current, next, event)) {
+            if (botToMove(next)) scheduleBotTurn(room);
+            startTurnClock(room, next);
+        }
+        if (!room.journalFailing) {
+            try {
+                // the history gets a checkpoint every so often, and one on the first event after a restart so that a
+                // history started mid-game (or with a gap from a crash) can be read from there on
+                RoomState checkpoint = null;
+                if (history.enabled() && (!room.historyCheckpointed || next.seq % history.getCheckpointEvery() == 0)) {
+                    checkpoint = next;
+                    room.historyCheckpointed = true;
+                }
+                writer.append(room.id, mapper.writeValueAsBytes(new JournalRecord(next.seq, event)), checkpoint);
+                if (++room.journaled >= journal.getSnapshotEvery()) {
+                    // fold the journal into a single snapshot so replay stays short
+                    writer.snapshot(room.id, mapper.writeValueAsBytes(new JournalRecord(next.seq, new GameEvent.Snapshot(snapshotOf(next)))));
+                    room.journaled = 1;
+                }
+                return;
+            } catch (Exception e) {
+                log.error("Could not journal {} of room {} at version {}, writing a snapshot instead",
+                        event.getClass().getSimpleName(), room.id, next.seq, e);
+                room.journalFailing = true;
+                room.historyCheckpointed = false; // the history misses it too, so it restarts from a checkpoint
             }
-            out.put("rooms", roomsOut);
-            mapper.writeValue(persistPath.toFile(), out);
+        }
+        // the room is already ahead of its journal; a snapshot of this version closes the gap
+        try {
+            writer.snapshot(room.id, mapper.writeValueAsBytes(new JournalRecord(next.seq, new GameEvent.Snapshot(snapshotOf(next)))));
+            room.journaled = 1;
+            room.journalFailing = false;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Could not snapshot room {} at version {}, its journal stays behind until one can be written", room.id, next.seq, e);
         }
     }
 
-    private List<Map<String,Object>> getPlayerPersistListForRoom(Room r) {
+    // the only place room state changes; also used to replay the journal at startup
+    private void apply(RoomState room, GameEvent event) {
+        if (event instanceof GameEvent.Snapshot e) restoreImage(room, e.room());
+        else GameRules.apply(room, event);
+    }
+
+    // client view of a room version
+    private static Map<String,Object> stateViewOf(RoomState r) {
+        Map<String,Object> result = new HashMap<>();
+        result.put("version", r.seq);
+        result.put("players", playerListForRoom(r));
+        result.put("properties", propertyListForRoom(r));
+        result.put("lastMove", r.lastMove);
+        result.put("started", r.started);
+        result.put("adminId", r.adminId);
+        result.put("startAmount", r.startAmount);
+        result.put("currentTurn", r.currentTurn());
+        return result;
+    }
+
+    // What a client at version `from` needs to reach `to`: replaced top-level fields under "set",
+    // changed player fields by id, changed owners by tile. A new roster or board goes whole under "set".
+    private static Map<String,Object> patchOf(RoomState from, RoomState to) {
+        Map<String,Object> set = new HashMap<>();
+        if (from.started != to.started) set.put("started", to.started);
+        if (!Objects.equals(from.adminId, to.adminId)) set.put("adminId", to.adminId);
+        if (from.startAmount != to.startAmount) set.put("startAmount", to.startAmount);
+        if (!Objects.equals(from.currentTurn(), to.currentTurn())) set.put("currentTurn", to.currentTurn());
+        if (!Objects.equals(from.lastMove, to.lastMove)) set.put("lastMove", to.lastMove);
+
+        List<Map<String,Object>> players = new ArrayList<>();
+        if (!sameRoster(from, to)) {
+            set.put("players", playerListForRoom(to));
+        } else {
+            for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+                if (!to.isSeated(s)) continue;
+                Map<String,Object> p = new HashMap<>();
+                if (from.pos[s] != to.pos[s]) p.put("pos", to.pos[s]);
+                if (from.money[s] != to.money[s]) p.put("money", to.money[s]);
+                if (from.isReady(s) != to.isReady(s)) p.put("ready", to.isReady(s));
+                if (p.isEmpty()) continue;
+                p.put("id", to.seatIds[s]);
+                players.add(p);
+            }
+        }
+
+        Map<String,Object> owners = new HashMap<>();
+        if (from.board != to.board) {
+            set.put("properties", propertyListForRoom(to));
+        } else {
+            for (int i = 0; i < to.board.size(); i++) {
+                String owner = to.ownerOf(i);
+                if (!Objects.equals(from.ownerOf(i), owner)) owners.put(String.valueOf(i), owner); // null = back to the bank
+            }
+        }
+
+        Map<String,Object> patch = new HashMap<>();
+        patch.put("from", from.seq);
+        patch.put("version", to.seq);
+        if (!set.isEmpty()) patch.put("set", set);
+        if (!players.isEmpty()) patch.put("players", players);
+        if (!owners.isEmpty()) patch.put("owners", owners);
+        return patch;
+    }
+
+    private static boolean sameRoster(RoomState a, RoomState b) {
+        if (a.seated != b.seated) return false;
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            if (a.isSeated(s) && (!a.seatIds[s].equals(b.seatIds[s]) || !Objects.equals(a.names[s], b.names[s]))) return false;
+        }
+        return true;
+    }
+
+    private Map<String,Object> snapshotOf(RoomState r) {
+        Map<String,Object> ro = new HashMap<>();
+        ro.put("players", getPlayerPersistListForRoom(r));
+        ro.put("board", r.board.key());
+        ro.put("owners", ownerMapForRoom(r));
+        ro.put("ready", readyMapForRoom(r));
+        ro.put("lastMove", r.lastMove);
+        ro.put("started", r.started);
+        ro.put("adminId", r.adminId);
+        ro.put("adminPrincipal", r.adminPrincipal);
+        ro.put("startAmount", r.startAmount);
+        ro.put("currentTurn", r.currentTurn());
+        ro.put("seed", r.seed);
+        ro.put("rolls", r.rolls);
+        ro.put("turns", r.turns);
+        return ro;
+    }
+
+    private List<Map<String,Object>> getPlayerPersistListForRoom(RoomState r) {
         List<Map<String,Object>> list = new ArrayList<>();
-        for (Player p : r.players.values()) list.add(Map.of("id", p.id, "name", p.name, "pos", p.pos, "money", p.money));
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            if (r.isSeated(s)) list.add(Map.of("id", r.seatIds[s], "name", r.names[s], "pos", r.pos[s], "money", r.money[s], "seat", s));
+        }
         return list;
     }
 
-    private List<Map<String,Object>> getPropertyPersistListForRoom(Room r) {
-        List<Map<String,Object>> out = new ArrayList<>();
-        for (Property pr : r.properties) {
+    private static Map<String,Object> readyMapForRoom(RoomState r) {
+        Map<String,Object> out = new HashMap<>();
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            if (r.isSeated(s)) out.put(r.seatIds[s], r.isReady(s));
+        }
+        return out;
+    }
+
+    // client view of the players, in seat (turn) order
+    private static List<Map<String,Object>> playerListForRoom(RoomState r) {
+        List<Map<String,Object>> out = new ArrayList<>(r.playerCount());
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            if (r.isSeated(s)) out.add(Map.of("id", r.seatIds[s], "name", r.names[s], "pos", r.pos[s], "money", r.money[s], "ready", r.isReady(s)));
+        }
+        return out;
+    }
+
+    // tile index -> owner id, owned tiles only
+    private static Map<String,Object> ownerMapForRoom(RoomState r) {
+        Map<String,Object> out = new HashMap<>();
+        for (int i = 0; i < r.owners.length; i++) {
+            if (r.owners[i] != 0) out.put(String.valueOf(i), r.ownerOf(i));
+        }
+        return out;
+    }
+
+    // client view of the board: shared tile data joined with this room's owners
+    private static List<Map<String,Object>> propertyListForRoom(RoomState r) {
+        List<Map<String,Object>> out = new ArrayList<>(r.board.size());
+        for (int i = 0; i < r.board.size(); i++) {
             Map<String,Object> propMap = new HashMap<>();
-            propMap.put("id", pr.id);
-            propMap.put("name", pr.name);
-            propMap.put("cost", pr.cost);
-            propMap.put("ownerId", pr.ownerId); // can be null
+            propMap.put("id", i);
+            propMap.put("name", r.board.name(i));
+            propMap.put("cost", r.board.cost(i));
+            propMap.put("ownerId", r.ownerOf(i)); // can be null
             out.add(propMap);
         }
         return out;
     }
 
-    private synchronized void loadState() {
+    // rebuild a room from a snapshot image (also reads rooms from the legacy game-state.json)
+    private void restoreImage(RoomState r, Map rmap) {
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            if (r.isSeated(s)) r.leaveSeat(s);
+        }
+        Object pls = rmap.get("players");
+        if (pls instanceof List) {
+            for (Object o : (List) pls) {
+                Map pm = (Map) o;
+                String id = (String) pm.get("id");
+                String name = (String) pm.get("name");
+                int money = pm.get("money") instanceof Number ? ((Number) pm.get("money")).intValue() : 1500;
+                // images from before seats existed list players in join order
+                int seat = pm.get("seat") instanceof Number ? ((Number) pm.get("seat")).intValue() : -1;
+                if (seat >= 0 && seat < RoomState.MAX_SEATS && !r.isSeated(seat)) {
+                    r.occupy(seat, id, name, money);
+                } else {
+                    seat = r.takeSeat(id, name, money);
+                    if (seat < 0) continue;
+                }
+                Object pos = pm.get("pos"); r.pos[seat] = pos instanceof Number ? ((Number) pos).intValue() : 0;
+            }
+        }
+        Object prs = rmap.get("properties");
+        if (prs instanceof List) {
+            // older images carry the whole board; only the 36-tile lobby board had that many tiles
+            List list = (List) prs;
+            r.setBoard(list.size() == Board.TILES.size() ? Board.TILES : Board.CLASSIC);
+            for (Object o : list) {
+                Map pm = (Map) o;
+                int id = ((Number) pm.get("id")).intValue();
+                if (id >= 0 && id < r.owners.length) r.setOwner(id, (String) pm.get("ownerId"));
+            }
+        } else {
+            r.setBoard(Board.forKey((String) rmap.get("board")));
+            Object ow = rmap.get("owners");
+            if (ow instanceof Map) {
+                for (Object k : ((Map) ow).keySet()) {
+                    int id = Integer.parseInt((String) k);
+                    if (id >= 0 && id < r.owners.length) r.setOwner(id, (String) ((Map) ow).get(k));
+                }
+            }
+        }
+        Object rd = rmap.get("ready");
+        if (rd instanceof Map) {
+            for (Object k : ((Map) rd).keySet()) {
+                Object v = ((Map) rd).get(k);
+                int seat = r.seatOf((String) k);
+                if (v instanceof Boolean && seat >= 0) r.setReady(seat, (Boolean) v);
+            }
+        }
+        Object lm = rmap.get("lastMove");
+        if (lm instanceof Map) r.lastMove = (Map) lm;
+        Object st = rmap.get("started");
+        if (st instanceof Boolean) r.started = (Boolean) st;
+        Object adm = rmap.get("adminId");
+        r.adminId = adm instanceof String ? (String) adm : null;
+        Object admP = rmap.get("adminPrincipal");
+        r.adminPrincipal = admP instanceof String ? (String) admP : null;
+        Object sa = rmap.get("startAmount");
+        if (sa instanceof Number) r.startAmount = ((Number) sa).intValue();
+        if (rmap.get("seed") instanceof Number seed) r.seed = seed.longValue();
+        if (rmap.get("rolls") instanceof Number rolls) r.rolls = rolls.longValue();
+        if (rmap.get("turns") instanceof Number turns) r.turns = turns.longValue();
+        // turnIndex used to be a list position, the player id is what identifies the turn
+        Object ct = rmap.get("currentTurn");
+        r.turnSeat = ct instanceof String ? r.seatOf((String) ct) : -1;
+    }
+
+    // map the binary snapshot and list journals; rooms are only decoded when first used
+    private void loadState() {
         try {
-            if (!Files.exists(persistPath)) return;
-            Map m = mapper.readValue(persistPath.toFile(), Map.class);
-            Object roomsObj = m.get("rooms");
-            if (roomsObj instanceof Map) {
-                Map rm = (Map) roomsObj;
-                for (Object key : rm.keySet()) {
-                    String rid = (String) key;
-                    Object rv = rm.get(rid);
-                    if (!(rv instanceof Map)) continue;
-                    Map rmap = (Map) rv;
-                    Room r = new Room(rid);
-                    Object pls = rmap.get("players");
-                    if (pls instanceof List) {
-                        for (Object o : (List) pls) {
-                            Map pm = (Map) o;
-                            String id = (String) pm.get("id");
-                            String name = (String) pm.get("name");
-                            Player p = new Player(id, name);
-                            Object pos = pm.get("pos"); if (pos instanceof Number) p.pos = ((Number) pos).intValue();
-                            Object money = pm.get("money"); if (money instanceof Number) p.money = ((Number) money).intValue();
-                            r.players.put(id, p);
-                        }
-                    }
-                    Object prs = rmap.get("properties");
-                    if (prs instanceof List) {
-                        for (Object o : (List) prs) {
-                            Map pm = (Map) o;
-                            int id = ((Number) pm.get("id")).intValue();
-                            String name = (String) pm.get("name");
-                            int cost = ((Number) pm.get("cost")).intValue();
-                            Property prop = new Property(id, name, cost);
-                            prop.ownerId = (String) pm.get("ownerId");
-                            r.properties.add(prop);
-                        }
-                    }
-                    Object lm = rmap.get("lastMove");
-                    if (lm instanceof Map) r.lastMove = (Map) lm;
-                    Object st = rmap.get("started");
-                    if (st instanceof Boolean) r.started = (Boolean) st;
-                    Object adm = rmap.get("adminId");
-                    if (adm instanceof String) r.adminId = (String) adm;
-                    Object admP = rmap.get("adminPrincipal");
-                    if (admP instanceof String) r.adminPrincipal = (String) admP;
-                    Object sa = rmap.get("startAmount");
-                    if (sa instanceof Number) r.startAmount = ((Number) sa).intValue();
-                    rooms.put(rid, r);
+            snapshots.open();
+            dormant.addAll(snapshots.roomIds());
+            dormant.addAll(journal.roomIds());
+            if (dormant.isEmpty()) migrateLegacyState();
+        } catch (Exception e) {
+            log.error("Could not load saved rooms", e);
+        }
+    }
+
+    // rebuild a room from its binary snapshot block plus the journal records newer than it
+    private Room rehydrate(String rid) {
+        RoomState r = null;
+        int journaled = 0;
+        ByteBuffer block = snapshots.room(rid);
+        if (block != null) {
+            try {
+                r = RoomCodec.decode(block);
+            } catch (Exception e) {
+                log.warn("Unreadable snapshot for room {}, replaying journal only: {}", rid, e.getMessage());
+            }
+        }
+        if (r == null) r = new RoomState();
+        boolean cut = false;
+        try {
+            for (byte[] bytes : journal.read(rid)) {
+                JournalRecord record;
+                try {
+                    record = mapper.readValue(bytes, JournalRecord.class);
+                } catch (Exception e) {
+                    // torn write at the tail from a crash, everything before it is intact
+                    log.warn("Stopping replay of room {} at unreadable record: {}", rid, e.getMessage());
+                    cut = true;
+                    break;
+                }
+                journaled++;
+                if (record.seq() <= r.seq) continue; // already in the snapshot
+                if (!follows(r.seq, record)) {
+                    // applying past a lost record would rebuild a room that never existed
+                    log.error("Journal of room {} jumps from version {} to {}, stopping replay at {}", rid, r.seq, record.seq(), r.seq);
+                    cut = true;
+                    break;
                 }
+                apply(r, record.event());
+                r.seq = record.seq();
             }
+            if (cut) {
+                // new moves must not land behind the records left out, or the next restart stops short of them too
+                writer.snapshot(rid, mapper.writeValueAsBytes(new JournalRecord(r.seq, new GameEvent.Snapshot(snapshotOf(r)))));
+                journaled = 1;
+            }
+        } catch (IOException e) {
+            log.error("Could not read the journal of room {}, it comes back at version {}", rid, r.seq, e);
+        }
+        Room room = new Room(rid, r);
+        room.journaled = journaled;
+        try {
+            lobbyRepository.findByCode(rid).ifPresent(lobby -> lobbySettings(room, lobby));
         } catch (Exception e) {
-            e.printStackTrace();
+            // no lobby for this room, it keeps the server defaults
         }
+        resumeTimers(room);
+        return room;
     }
 
-    // init
-    {
-        loadState();
+    // whether a journal record comes right after version seq; a snapshot record stands on its own
+    private static boolean follows(long seq, JournalRecord record) {
+        return record.seq() == seq + 1 || record.event() instanceof GameEvent.Snapshot;
+    }
+
+    /**
+     * Replay the room's recorded moves since its last snapshot, rolling every die again from the room's seed
+     * (see {@link GameReplay}), and check that the replay ends where the room did. Null if there is no such room.
+     */
+    public Map<String, Object> replay(String roomId) throws Exception {
+        Room room = room(roomId);
+        if (room == null) return null;
+        writer.flush(); // the journal must hold every move made so far
+        RoomState start = null;
+        ByteBuffer block = snapshots.room(roomId);
+        if (block != null) start = RoomCodec.decode(block);
+        if (start == null) start = new RoomState();
+        List<GameEvent> moves = new ArrayList<>();
+        Long gapAfter = null;
+        for (byte[] bytes : journal.read(roomId)) {
+            JournalRecord record;
+            try {
+                record = mapper.readValue(bytes, JournalRecord.class);
+            } catch (Exception e) {
+                break; // torn tail, as in rehydrate
+            }
+            if (record.seq() <= start.seq + moves.size()) continue;
+            if (!follows(start.seq + moves.size(), record)) {
+                gapAfter = start.seq + moves.size();
+                break;
+            }
+            if (record.event() instanceof GameEvent.Snapshot e) {
+                // a compacted journal starts from an image: replay from there
+                start = new RoomState();
+                restoreImage(start, e.room());
+                start.seq = record.seq();
+                moves.clear();
+            } else {
+                moves.add(record.event());
+            }
+        }
+        GameReplay.Result result = GameReplay.replay(start, moves);
+        RoomState replayed = result.state();
+        RoomState live = executor.call(roomId, () -> room.recent(replayed.seq));
+        Map<String, Object> out = new HashMap<>();
+        out.put("from", start.seq);
+        out.put("moves", result.moves());
+        out.put("version", replayed.seq);
+        out.put("reproduced", result.reproduced());
+        if (gapAfter != null) out.put("gapAfter", gapAfter); // the journal is missing the record after this version
+        if (room.journalFailing || writer.isFailing(roomId)) out.put("journalFailing", true);
+        if (!result.reproduced()) {
+            out.put("divergedAt", start.seq + result.divergedAt() + 1);
+            out.put("reason", result.reason());
+        } else if (live != null) {
+            // the live room may have moved on since the journal was read, so compare at the replayed version;
+            // by what players see plus the dice, since an image restores owner ids in another order
+            out.put("matchesRoom", stateViewOf(live).equals(stateViewOf(replayed))
+                    && live.seed == replayed.seed && live.rolls == replayed.rolls);
+        }
+        return out;
+    }
+
+    /**
+     * The room as it was at {@code version} or, if that is null, after {@code turn} turns (with that turn's buys
+     * and rent), in the client's state shape plus its turn number. Recent versions of a loaded room come from
+     * memory; anything else is rebuilt from the room's history, from the last checkpoint before it, so this also
+     * answers for rooms long gone from memory such as completed games. Null if the room never had that state or
+     * its history does not cover it.
+     */
+    public Map<String, Object> stateAt(String roomId, Long version, Long turn) throws Exception {
+        Room live = rooms.get(roomId);
+        if (live != null && version != null) {
+            RoomState recent = executor.call(roomId, () -> live.recent(version));
+            if (recent != null) return historicView(recent);
+        }
+        if (!history.exists(roomId)) return null;
+        writer.flush(); // the history must hold every event made so far
+        RoomHistory.Checkpoint checkpoint = version != null
+                ? history.checkpointBefore(roomId, version, Long.MAX_VALUE)
+                : history.checkpointBefore(roomId, Long.MAX_VALUE, turn);
+        RoomState st = checkpoint != null ? checkpoint.state() : new RoomState();
+        long offset = checkpoint != null ? checkpoint.offset() : 0;
+        // no two checkpoints are further apart than that, so the target is within reach
+        for (byte[] bytes : history.read(roomId, offset, history.getCheckpointEvery() + 1)) {
+            if (version != null && st.seq >= version) break;
+            JournalRecord record;
+            try {
+                record = mapper.readValue(bytes, JournalRecord.class);
+            } catch (Exception e) {
+                break; // torn tail
+            }
+            if (record.seq() != st.seq + 1) return null; // events lost in a crash, or history started later
+            RoomState next = st.copy();
+            apply(next, record.event());
+            next.seq = record.seq();
+            if (version == null && next.turns > turn) break;
+            st = next;
+        }
+        if (version != null ? st.seq != version : st.turns != turn) return null;
+        return historicView(st);
+    }
+
+    private static Map<String, Object> historicView(RoomState st) {
+        Map<String, Object> view = stateViewOf(st);
+        view.put("turn", st.turns);
+        return view;
+    }
+
+    /**
+     * Write every loaded room into a new binary snapshot generation (dormant
+     * rooms are carried over as-is), then drop the journals it made redundant.
+     */
+    @Scheduled(fixedDelayString = "${game.snapshot.interval-ms:300000}", initialDelayString = "${game.snapshot.interval-ms:300000}")
+    public void checkpoint() {
+        synchronized (checkpointLock) {
+            Map<String, byte[]> blocks = new HashMap<>();
+            Map<String, Long> seqs = new HashMap<>();
+            for (Room r : rooms.values()) {
+                RoomState st = r.state();
+                blocks.put(r.id, RoomCodec.encode(st));
+                seqs.put(r.id, st.seq);
+            }
+            try {
+                snapshots.write(blocks);
+            } catch (Exception e) {
+                log.error("Snapshot checkpoint of {} rooms failed, their journals are kept", blocks.size(), e);
+                return;
+            }
+            // only once the snapshot is durable; rooms that moved on since keep their journal.
+            // Checked on the room's mailbox so no record can be queued between the check and the truncate.
+            for (Room r : rooms.values()) {
+                Long seq = seqs.get(r.id);
+                if (seq == null) continue;
+                executor.execute(r.id, () -> {
+                    if (r.state().seq == seq) {
+                        writer.truncate(r.id);
+                        r.journaled = 0;
+                    }
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // finish queued commands first so the checkpoint includes them
+        executor.close();
+        checkpoint();
+    }
+
+    // one-time import of game-state.json into per-room journals
+    private void migrateLegacyState() throws IOException {
+        if (!Files.exists(legacyStatePath)) return;
+        Map m = mapper.readValue(legacyStatePath.toFile(), Map.class);
+        Object roomsObj = m.get("rooms");
+        if (roomsObj instanceof Map) {
+            Map rm = (Map) roomsObj;
+            for (Object key : rm.keySet()) {
+                String rid = (String) key;
+                Object rv = rm.get(rid);
+                if (!(rv instanceof Map)) continue;
+                RoomState st = new RoomState();
+                restoreImage(st, (Map) rv);
+                st.seq = 1;
+                journal.compact(rid, mapper.writeValueAsBytes(new JournalRecord(st.seq, new GameEvent.Snapshot(snapshotOf(st)))));
+                Room r = new Room(rid, st);
+                r.journaled = 1;
+                rooms.put(rid, r);
+                resumeTimers(r);
+            }
+        }
+        log.info("Migrated {} rooms from {} to the room journal", rooms.size(), legacyStatePath);
     }
 
     // create a reserved lobby code and mark the principal name as intended admin
     public String createLobby(String principalName) {
         // try up to 1000 times to find an unused 6-digit code
         for (int i = 0; i < 1000; i++) {
-            String code = String.valueOf(100000 + new Random().nextInt(900000));
-            if (rooms.containsKey(code)) continue;
-            Room r = new Room(code);
-            // create default properties
-            for (int j = 0; j < 36; j++) r.properties.add(new Property(j, "Tile " + j, 100 + (j % 12) * 25));
-            r.adminPrincipal = principalName;
-            rooms.put(code, r);
-            saveState();
-            return code;
+            String code = String.valueOf(100000 + ThreadLocalRandom.current().nextInt(900000));
+            if (rooms.containsKey(code) || dormant.contains(code)) continue;
+            try {
+                // claim the code and create the room on its mailbox, like every other write to a room
+                boolean created = executor.call(code, () -> {
+                    if (dormant.contains(code)) return false;
+                    Room r = new Room(code);
+                    if (rooms.putIfAbsent(code, r) != null) return false;
+                    // create default properties
+                    emit(r, new GameEvent.RoomCreated("tiles", principalName, r.state().startAmount, tokens.nextLong()));
+                    return true;
+                });
+                if (created) return code;
+            } catch (Exception e) {
+                log.warn("Failed to create room {}: {}", code, e.getMessage());
+                return null;
+            }
         }
         return null;
     }
     
     // Buy a property
-    public synchronized boolean buyProperty(String roomId, String playerId, int propertyId) {
-        Room room = rooms.get(roomId);
+    public boolean buyProperty(String roomId, String playerId, int propertyId) {
+        Room room = room(roomId);
         if (room == null) return false;
+        RoomState st = room.state();
         
-        Player player = room.players.get(playerId);
-        if (player == null) return false;
-        
-        // Find the property
-        Property property = room.properties.stream()
-            .filter(p -> p.id == propertyId)
-            .findFirst()
-            .orElse(null);
-        
-        if (property == null) return false;
-        
-        // Check if property is already owned
-        if (property.ownerId != null) {
-            System.out.println("Property " + property.name + " is already owned by " + property.ownerId);
+        int seat = st.seatOf(playerId);
+        String refused = GameRules.refuseBuy(st, seat, propertyId);
+        if (refused != null) {
+            log.debug("Player {} cannot buy property {}: {}", playerId, propertyId, refused);
             return false;
         }
         
-        // Check if player has enough money
-        if (player.money < property.cost) {
-            System.out.println("Player " + player.name + " doesn't have enough money. Has: " + player.money + ", Needs: " + property.cost);
-            return false;
-        }
+        Board board = st.board;
+        int cost = board.cost(propertyId);
         
         // Purchase the property
-        player.money -= property.cost;
-        property.ownerId = playerId;
-        
-        System.out.println("✅ Player " + player.name + " bought " + property.name + " for $" + property.cost);
+        emit(room, new GameEvent.Bought(playerId, propertyId, cost));
         
-        // Broadcast updated state
-        broadcastState(room);
-        saveState();
+        System.out.println("✅ Player " + st.names[seat] + " bought " + board.name(propertyId) + " for $" + cost);
         
+        // the caller broadcasts the new state together with its result
         return true;
     }
     
     // Charge rent when landing on owned property
-    public synchronized void chargeRent(String roomId, String playerId, int propertyId) {
-        Room room = rooms.get(roomId);
+    public void chargeRent(String roomId, String playerId, int propertyId) {
+        Room room = room(roomId);
         if (room == null) return;
+        RoomState st = room.state();
         
-        Property property = room.properties.stream()
-            .filter(p -> p.id == propertyId)
-            .findFirst()
-            .orElse(null);
-        
-        if (property == null || property.ownerId == null || property.ownerId.equals(playerId)) {
+        if (propertyId < 0 || propertyId >= st.board.size()) return;
+        String ownerId = st.ownerOf(propertyId);
+        if (ownerId == null || ownerId.equals(playerId)) {
             return; // No rent if property is unowned or player owns it
         }
         
-        Player tenant = room.players.get(playerId);
-        Player landlord = room.players.get(property.ownerId);
+        int tenant = st.seatOf(playerId);
+        int landlord = st.seatOf(ownerId);
         
-        if (tenant == null || landlord == null) return;
+        if (tenant < 0 || landlord < 0) return;
         
-        int rent = (int) Math.floor(property.cost * 0.1); // 10% of property cost
+        int rent = GameRules.rent(st.board, propertyId);
         
-        tenant.money -= rent;
-        landlord.money += rent;
+        emit(room, new GameEvent.RentPaid(playerId, ownerId, propertyId, rent));
         
-        System.out.println("💸 " + tenant.name + " paid $" + rent + " rent to " + landlord.name + " for " + property.name);
+        System.out.println("💸 " + st.names[tenant] + " paid $" + rent + " rent to " + st.names[landlord] + " for " + st.board.name(propertyId));
         
         broadcastState(room);
-        saveState();
     }
     
     // Ensure room exists and set admin principal for later matching
     public void ensureRoomWithAdminPrincipal(String roomId, String adminPrincipalEmail) {
-        Room room = ensureRoom(roomId);
-        if (room.adminPrincipal == null) {
-            room.adminPrincipal = adminPrincipalEmail;
-            saveState();
+        try {
+            executor.call(roomId, () -> {
+                Room room = ensureRoom(roomId);
+                RoomState st = room.state();
+                if (st.adminPrincipal == null) {
+                    emit(room, new GameEvent.AdminChanged(st.adminId, adminPrincipalEmail));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to reserve room {} for {}", roomId, adminPrincipalEmail, e);
         }
     }
 }
\ No newline at end of file
@@ -116,6 +116,36 @@ public class LobbyService {
         return lobbyRepository.save(lobby);
     }
 
+    /**
+     * Update how long bots think before each turn (null for the server default)
+     */
+    public Lobby updateBotThinkMs(String code, Integer botThinkMs, String requesterUsername) {
+        Lobby lobby = lobbyRepository.findByCode(code)
+                .orElseThrow(() -> new IllegalArgumentException("Lobby not found"));
+        
+        if (!lobby.isAdmin(requesterUsername)) {
+            throw new IllegalStateException("Only admin can change bot speed");
+        }
+        
+        lobby.setBotThinkMs(botThinkMs);
+        return lobbyRepository.save(lobby);
+    }
+
+    /**
+     * Update how long each player has for a turn (0 for no limit, null for the server default)
+     */
+    public Lobby updateTurnTimeoutMs(String code, Integer turnTimeoutMs, String requesterUsername) {
+        Lobby lobby = lobbyRepository.findByCode(code)
+                .orElseThrow(() -> new IllegalArgumentException("Lobby not found"));
+        
+        if (!lobby.isAdmin(requesterUsername)) {
+            throw new IllegalStateException("Only admin can change the turn timer");
+        }
+        
+        lobby.setTurnTimeoutMs(turnTimeoutMs);
+        return lobbyRepository.save(lobby);
+    }
+
     /**
      * Start game
      */
@@ -0,0 +1,191 @@
+package com.example.monopoly.service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.monopoly.config.VirtualThreads;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * One serial mailbox per room on top of a shared worker pool. Tasks for the
+ * same room run one at a time in submission order, so room state only ever
+ * has a single writer; different rooms run in parallel on all workers. A
+ * mailbox holds no thread while it is empty and is dropped once it has
+ * drained, so a room id (they come from clients) leaves nothing behind
+ * once its tasks have run. With {@code game.threads.virtual} on Java 21+
+ * every mailbox drain runs on its own virtual thread instead.
+ */
+@Component
+public class RoomExecutor {
+    private static final Logger log = LoggerFactory.getLogger(RoomExecutor.class);
+    // tasks one mailbox may run before giving its worker to another room
+    private static final int BATCH = 64;
+    private static final long CALL_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService workers;
+    // only fires delayed tasks into mailboxes, never runs room code itself
+    private final TimingWheel timer;
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> currentRoom = new ThreadLocal<>();
+
+    public RoomExecutor(@Value("${game.rooms.workers:0}") int workers,
+                        @Value("${game.threads.virtual:false}") boolean virtual,
+                        @Value("${game.timer.tick-ms:10}") long tickMs,
+                        @Value("${game.timer.wheel-size:512}") int wheelSize) {
+        this.timer = new TimingWheel("room-timer", tickMs, wheelSize);
+        if (virtual && VirtualThreads.available()) {
+            this.workers = VirtualThreads.newPerTaskExecutor("room-worker-");
+            log.info("Room commands run on virtual threads");
+            return;
+        }
+        int n = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "room-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Queue a task on the room's mailbox. Once the pool has shut down the caller runs it directly. */
+    public void execute(String roomId, Runnable task) {
+        if (workers.isTerminated()) {
+            task.run();
+            return;
+        }
+        // a mailbox retired between the lookup and the offer is already out of the map, the next lookup makes a new one
+        while (!mailboxes.computeIfAbsent(roomId, Mailbox::new).offer(task)) {}
+    }
+
+    /**
+     * Queue a task on the room's mailbox once {@code delayMs} has passed, to within
+     * one timer tick. Delayed work is dropped once the executor is closing, like
+     * any still pending then; the returned handle is then already spent.
+     */
+    public TimingWheel.Timeout schedule(String roomId, long delayMs, Runnable task) {
+        try {
+            return timer.schedule(delayMs, () -> execute(roomId, task));
+        } catch (IllegalStateException e) {
+            log.debug("Not scheduling a task for room {}: shutting down", roomId);
+            return () -> false;
+        }
+    }
+
+    /** Delayed tasks not yet due. */
+    public int scheduled() {
+        return timer.pending();
+    }
+
+    /**
+     * Run a task on the room's mailbox and wait for its result. Called from a
+     * task of the same room it runs inline instead of deadlocking.
+     */
+    public <T> T call(String roomId, Callable<T> task) throws Exception {
+        if (roomId.equals(currentRoom.get())) return task.call();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(roomId, () -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        try {
+            // bounded so a caller is not stuck forever if the pool is shutting down
+            return result.get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        // let queued commands finish so they reach the journal before it closes
+        timer.close();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) workers.shutdownNow();
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Mailbox implements Runnable {
+        final String roomId;
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // set once, under this mailbox's lock, when it leaves the map; it takes no tasks after that
+        boolean retired;
+
+        Mailbox(String roomId) { this.roomId = roomId; }
+
+        boolean offer(Runnable task) {
+            synchronized (this) {
+                if (retired) return false;
+                queue.add(task);
+            }
+            schedule();
+            return true;
+        }
+
+        void schedule() {
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this);
+                } catch (RuntimeException e) {
+                    scheduled.set(false);
+                    log.warn("Dropping tasks for room {}: {}", roomId, e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            currentRoom.set(roomId);
+            try {
+                for (int i = 0; i < BATCH; i++) {
+                    Runnable task = queue.poll();
+                    if (task == null) break;
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        log.error("Task failed in room {}: {}", roomId, t.getMessage(), t);
+                    }
+                }
+            } finally {
+                currentRoom.remove();
+                scheduled.set(false);
+                // a task may have arrived after the last poll, or the batch ran out
+                schedule();
+                retireIfIdle();
+            }
+        }
+
+        // offers are locked out while checking, so a task either made it in before or goes to the next mailbox
+        private void retireIfIdle() {
+            synchronized (this) {
+                if (!queue.isEmpty() || scheduled.get()) return;
+                retired = true;
+                mailboxes.remove(roomId, this);
+            }
+        }
+    }
+}
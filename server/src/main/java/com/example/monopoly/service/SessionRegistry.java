@@ -0,0 +1,85 @@
+package com.example.monopoly.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.example.monopoly.game.Room;
+
+/**
+ * Which sessions have joined which seat. Every joined session maps to its room
+ * and player, and every seat maps to all of its sessions (a player may be
+ * connected from several tabs or devices), so both directions are a single
+ * lookup. The room's broadcast set, {@link Room#sessions}, is kept in step.
+ *
+ * <p>Sessions are bound and unbound on their room's mailbox; lookups may come
+ * from any thread.
+ */
+@Component
+public class SessionRegistry {
+
+    /** A joined session: the room it is in and the player it plays as. */
+    public record Binding(WebSocketSession session, Room room, String playerId) {}
+
+    private record Seat(String roomId, String playerId) {}
+
+    private final Map<String, Binding> bySession = new ConcurrentHashMap<>();
+    private final Map<Seat, Set<WebSocketSession>> bySeat = new ConcurrentHashMap<>();
+
+    /** Seat the session as {@code playerId} in {@code room}, replacing any seat it had. */
+    public void bind(WebSocketSession session, Room room, String playerId) {
+        Binding previous = bySession.put(session.getId(), new Binding(session, room, playerId));
+        if (previous != null) detach(previous);
+        room.sessions.put(session.getId(), session);
+        bySeat.computeIfAbsent(new Seat(room.id, playerId), k -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    /** Forget the session; returns what it was bound to, or null if it never joined. */
+    public Binding unbind(WebSocketSession session) {
+        Binding b = bySession.remove(session.getId());
+        if (b != null) detach(b);
+        return b;
+    }
+
+    /** Unbind every session of a seat and return them, e.g. to close them after a kick. */
+    public Set<WebSocketSession> unbindPlayer(String roomId, String playerId) {
+        Set<WebSocketSession> sessions = bySeat.remove(new Seat(roomId, playerId));
+        if (sessions == null) return Set.of();
+        for (WebSocketSession s : sessions) {
+            Binding b = bySession.remove(s.getId());
+            if (b != null) b.room().sessions.remove(s.getId());
+        }
+        return sessions;
+    }
+
+    /** The session's seat, or null if it has not joined a room. */
+    public Binding binding(WebSocketSession session) {
+        return bySession.get(session.getId());
+    }
+
+    public String playerId(WebSocketSession session) {
+        Binding b = bySession.get(session.getId());
+        return b == null ? null : b.playerId();
+    }
+
+    /** Every open session of a player; empty if none. */
+    public Set<WebSocketSession> sessions(String roomId, String playerId) {
+        Set<WebSocketSession> sessions = bySeat.get(new Seat(roomId, playerId));
+        return sessions == null ? Set.of() : sessions;
+    }
+
+    public boolean isConnected(String roomId, String playerId) {
+        return !sessions(roomId, playerId).isEmpty();
+    }
+
+    private void detach(Binding b) {
+        b.room().sessions.remove(b.session().getId());
+        bySeat.computeIfPresent(new Seat(b.room().id, b.playerId()), (k, sessions) -> {
+            sessions.remove(b.session());
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.monopoly.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, each holding the
+ * deadlines that fall on it in some later turn of the wheel. Scheduling and
+ * cancelling are O(1) from any thread (they only enqueue); one thread moves
+ * new deadlines into their buckets, unlinks cancelled ones and, once per tick,
+ * fires what is due in the current bucket. Deadlines fire up to one tick late,
+ * which is the price of tracking hundreds of thousands of them without a heap.
+ *
+ * <p>Tasks run on the wheel thread, so they must only hand work off (e.g. to a
+ * room mailbox) and return.
+ */
+public final class TimingWheel {
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+    // bound the work done per tick when a burst of deadlines arrives at once
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    /** A scheduled task. */
+    public interface Timeout {
+        /** Stop the task from running; false if it already ran or was cancelled. */
+        boolean cancel();
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Entry> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long start = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean closed;
+
+    public TimingWheel(String name, long tickMs, int buckets) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int n = Integer.highestOneBit(Math.max(2, buckets - 1)) << 1; // power of two, so a tick maps to its bucket with a mask
+        this.wheel = new Bucket[n];
+        for (int i = 0; i < n; i++) wheel[i] = new Bucket();
+        this.mask = n - 1;
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Run {@code task} on the wheel thread once {@code delayMs} has passed. */
+    public Timeout schedule(long delayMs, Runnable task) {
+        if (closed) throw new IllegalStateException("timing wheel closed");
+        Entry e = new Entry(task, System.nanoTime() - start + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs)));
+        pending.incrementAndGet();
+        added.add(e);
+        return e;
+    }
+
+    /** Deadlines scheduled and not yet fired or cancelled. */
+    public int pending() {
+        return pending.get();
+    }
+
+    /** Stop the wheel; deadlines that have not fired are dropped. */
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep;
+            while ((sleep = deadline - (System.nanoTime() - start)) > 0 && !closed) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (closed) break;
+            for (Entry e; (e = cancelled.poll()) != null; ) {
+                if (e.bucket != null) e.bucket.remove(e);
+            }
+            transfer(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    // put newly scheduled deadlines in their bucket, counting whole turns of the wheel still to wait
+    private void transfer(long tick) {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Entry e = added.poll();
+            if (e == null) return;
+            if (e.state.get() != Entry.WAITING) continue;
+            long due = e.deadline / tickNanos;
+            e.rounds = (due - tick) / wheel.length;
+            wheel[(int) (Math.max(due, tick) & mask)].add(e);
+        }
+    }
+
+    private final class Entry implements Timeout {
+        static final int WAITING = 0, CANCELLED = 1, FIRED = 2;
+
+        final Runnable task;
+        final long deadline; // nanos since the wheel started
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        long rounds;
+        // bucket links, only touched by the wheel thread
+        Bucket bucket;
+        Entry prev, next;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) return false;
+            pending.decrementAndGet();
+            cancelled.add(this);
+            return true;
+        }
+    }
+
+    // doubly linked so a cancelled entry is unlinked in O(1); only the wheel thread touches it
+    private final class Bucket {
+        Entry head, tail;
+
+        void add(Entry e) {
+            e.bucket = this;
+            e.prev = tail;
+            if (tail == null) head = e;
+            else tail.next = e;
+            tail = e;
+        }
+
+        void remove(Entry e) {
+            if (e.prev != null) e.prev.next = e.next;
+            else head = e.next;
+            if (e.next != null) e.next.prev = e.prev;
+            else tail = e.prev;
+            e.prev = e.next = null;
+            e.bucket = null;
+        }
+
+        void expire() {
+            for (Entry e = head; e != null; ) {
+                Entry next = e.next;
+                if (e.state.get() == Entry.CANCELLED) {
+                    remove(e);
+                } else if (e.rounds <= 0) {
+                    remove(e);
+                    if (e.state.compareAndSet(Entry.WAITING, Entry.FIRED)) {
+                        pending.decrementAndGet();
+                        try {
+                            e.task.run();
+                        } catch (Throwable t) {
+                            log.error("Timer task failed: {}", t.getMessage(), t);
+                        }
+                    }
+                } else {
+                    e.rounds--;
+                }
+                e = next;
+            }
+        }
+    }
+}
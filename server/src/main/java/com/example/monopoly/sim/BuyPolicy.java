@@ -0,0 +1,48 @@
+package com.example.monopoly.sim;
+
+import java.util.SplittableRandom;
+
+import com.example.monopoly.bot.MarkovBotStrategy;
+import com.example.monopoly.game.RoomState;
+
+/**
+ * How a simulated player decides to buy the tile it landed on (it can always
+ * afford it when asked). Decisions draw only on the game's own random stream,
+ * so a seed replays the same game.
+ */
+@FunctionalInterface
+public interface BuyPolicy {
+
+    boolean buy(RoomState st, int seat, SplittableRandom random);
+
+    /**
+     * Parse a policy from the command line: {@code random[:p]} (buy with
+     * probability p, default 0.7, as server bots used to), {@code always},
+     * {@code never}, {@code reserve:N} (buy if N is left afterwards) or
+     * {@code markov[:rounds]} (the landing-table bot).
+     */
+    static BuyPolicy parse(String spec) {
+        String[] parts = spec.split(":", 2);
+        String arg = parts.length > 1 ? parts[1] : null;
+        switch (parts[0]) {
+            case "random": {
+                double p = arg == null ? 0.7 : Double.parseDouble(arg);
+                return (st, seat, random) -> random.nextDouble() < p;
+            }
+            case "always":
+                return (st, seat, random) -> true;
+            case "never":
+                return (st, seat, random) -> false;
+            case "reserve": {
+                int keep = Integer.parseInt(arg);
+                return (st, seat, random) -> st.money[seat] - st.board.cost(st.pos[seat]) >= keep;
+            }
+            case "markov": {
+                MarkovBotStrategy strategy = new MarkovBotStrategy(arg == null ? 100 : Integer.parseInt(arg));
+                return (st, seat, random) -> strategy.shouldBuy(st, seat).join();
+            }
+            default:
+                throw new IllegalArgumentException("unknown buy policy " + spec);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.monopoly.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.example.monopoly.game.Board;
+import com.example.monopoly.game.GameEvent;
+import com.example.monopoly.game.GameRules;
+import com.example.monopoly.game.RoomRandom;
+import com.example.monopoly.game.RoomState;
+
+/**
+ * Plays bot-only games with the server's rules and no server: no sessions,
+ * no Spring, no journal. Every move is a {@link GameEvent} applied through
+ * {@link GameRules}, and a turn is what a server bot does (roll, then buy
+ * or pay rent), so the results hold for the real game and the games per
+ * second measure the rules themselves.
+ *
+ * <p>Games are split across a fork/join pool; game {@code i} of a batch is
+ * seeded from the batch seed and {@code i} and rolls its dice the way a
+ * server room does ({@link RoomRandom}), so a batch gives the same report
+ * whatever the thread count.
+ * Nobody goes bankrupt here (rent that cannot be paid is not charged), so a
+ * game runs for a fixed number of rounds and the richest player wins.
+ *
+ * <pre>
+ * java -cp target/classes com.example.monopoly.sim.GameSimulator \
+ *     --games=1000000 --rounds=100 --start=1000,1500,2000 --policies=markov,random,random,random
+ * </pre>
+ */
+public final class GameSimulator {
+    // games per fork/join leaf
+    private static final int GRAIN = 512;
+    // buy policies draw from their own stream, split off the game's dice
+    private static final long POLICY_STREAM = 2;
+
+    /** A batch: how many games, of how many rounds, with which start amounts (taken in turn) and player policies. */
+    public record Config(long games, long seed, int rounds, String board, int[] startAmounts, List<String> policies, int threads) {
+        public Config {
+            if (policies.isEmpty() || policies.size() > RoomState.MAX_SEATS) {
+                throw new IllegalArgumentException("between 1 and " + RoomState.MAX_SEATS + " players");
+            }
+            if (startAmounts.length == 0) throw new IllegalArgumentException("no start amount");
+        }
+    }
+
+    private final Config config;
+    private final Board board;
+    private final BuyPolicy[] policies;
+    private final String[] ids;
+
+    public GameSimulator(Config config) {
+        this.config = config;
+        this.board = Board.forKey(config.board());
+        this.policies = config.policies().stream().map(BuyPolicy::parse).toArray(BuyPolicy[]::new);
+        this.ids = new String[policies.length];
+        for (int s = 0; s < ids.length; s++) ids[s] = "bot_" + s;
+    }
+
+    public SimulationReport run() {
+        int threads = config.threads() > 0 ? config.threads() : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long t0 = System.nanoTime();
+            SimulationReport report = pool.invoke(new Batch(0, config.games()));
+            report.nanos = System.nanoTime() - t0;
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private SimulationReport newReport() {
+        return new SimulationReport(board, config.startAmounts(), config.policies().toArray(String[]::new));
+    }
+
+    private final class Batch extends RecursiveTask<SimulationReport> {
+        private final long from, to;
+
+        Batch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= GRAIN) {
+                SimulationReport report = newReport();
+                for (long g = from; g < to; g++) play(g, report);
+                return report;
+            }
+            long mid = (from + to) >>> 1;
+            Batch left = new Batch(from, mid);
+            left.fork();
+            SimulationReport right = new Batch(mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // one game, turn by turn as GameService plays a bot's turn
+    void play(long game, SimulationReport report) {
+        int start = (int) (game % config.startAmounts().length);
+        int amount = config.startAmounts()[start];
+        // the same seed in a server room rolls the same dice
+        long seed = RoomRandom.split(config.seed(), game);
+        SplittableRandom random = new SplittableRandom(RoomRandom.split(seed, POLICY_STREAM));
+        RoomState st = new RoomState();
+        GameRules.apply(st, new GameEvent.RoomCreated(board.key(), null, amount, seed));
+        for (int s = 0; s < ids.length; s++) GameRules.apply(st, new GameEvent.PlayerJoined(ids[s], "Bot " + s, amount, true));
+        GameRules.apply(st, new GameEvent.Started());
+        int events = ids.length + 2;
+
+        int unsold = 0;
+        for (int t = 0; t < board.size(); t++) if (board.buyable(t)) unsold++;
+        int soldOut = 0;
+        for (int round = 1; round <= config.rounds(); round++) {
+            for (int turn = 0; turn < ids.length; turn++) {
+                int seat = st.turnSeat;
+                String id = ids[seat];
+                GameRules.apply(st, new GameEvent.Rolled(id, RoomRandom.dice(st.seed, st.rolls), true));
+                events++;
+                int tile = st.pos[seat];
+                String owner = st.ownerOf(tile);
+                int cost = board.cost(tile);
+                if (owner == null) {
+                    if (GameRules.refuseBuy(st, seat, tile) == null && policies[seat].buy(st, seat, random)) {
+                        GameRules.apply(st, new GameEvent.Bought(id, tile, cost));
+                        events++;
+                        report.bought(tile, cost);
+                        if (--unsold == 0) soldOut = round;
+                    }
+                } else if (!owner.equals(id)) {
+                    int rent = GameRules.rent(board, tile);
+                    if (st.money[seat] >= rent) {
+                        GameRules.apply(st, new GameEvent.RentPaid(id, owner, tile, rent));
+                        events++;
+                        report.rentPaid(tile, rent);
+                    }
+                }
+            }
+        }
+        report.finish(start, st, soldOut, events);
+    }
+
+    public static void main(String[] args) {
+        long games = 100_000, seed = 1;
+        int rounds = 100, threads = 0;
+        String board = "classic";
+        int[] start = { 1500 };
+        List<String> policies = List.of("random", "random", "random", "random");
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            String v = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "games" -> games = Long.parseLong(v);
+                case "seed" -> seed = Long.parseLong(v);
+                case "rounds" -> rounds = Integer.parseInt(v);
+                case "threads" -> threads = Integer.parseInt(v);
+                case "board" -> board = v;
+                case "start" -> start = Arrays.stream(v.split(",")).mapToInt(Integer::parseInt).toArray();
+                case "policies" -> policies = new ArrayList<>(Arrays.asList(v.split(",")));
+                default -> throw new IllegalArgumentException("unknown option " + arg);
+            }
+        }
+        System.out.print(new GameSimulator(new Config(games, seed, rounds, board, start, policies, threads)).run());
+    }
+}
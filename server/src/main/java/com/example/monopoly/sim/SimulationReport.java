@@ -0,0 +1,148 @@
+package com.example.monopoly.sim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import com.example.monopoly.game.Board;
+import com.example.monopoly.game.RoomState;
+
+/**
+ * Totals over a batch of simulated games. Each fork/join leaf fills its own
+ * report and the leaves are merged on the way up, so nothing is shared while
+ * games run.
+ */
+public final class SimulationReport {
+    private final Board board;
+    private final int[] startAmounts;
+    private final String[] policies;
+
+    long games;
+    long events;
+    final long[] gamesByStart;
+    final double[][] winsByStart;    // [start amount][seat]; a tie splits the win
+    final long[] soldOutByStart;     // games in which every buyable tile was bought
+    final long[] soldOutRoundsByStart;
+    final long[] buys;               // per tile
+    final long[] paid;
+    final long[] rent;
+    long nanos;
+
+    SimulationReport(Board board, int[] startAmounts, String[] policies) {
+        this.board = board;
+        this.startAmounts = startAmounts;
+        this.policies = policies;
+        int n = startAmounts.length;
+        this.gamesByStart = new long[n];
+        this.winsByStart = new double[n][policies.length];
+        this.soldOutByStart = new long[n];
+        this.soldOutRoundsByStart = new long[n];
+        this.buys = new long[board.size()];
+        this.paid = new long[board.size()];
+        this.rent = new long[board.size()];
+    }
+
+    void bought(int tile, int price) {
+        buys[tile]++;
+        paid[tile] += price;
+    }
+
+    void rentPaid(int tile, int amount) {
+        rent[tile] += amount;
+    }
+
+    // the richest player by net worth (cash plus the price of what they own) wins
+    void finish(int start, RoomState st, int soldOutRound, int gameEvents) {
+        games++;
+        events += gameEvents;
+        gamesByStart[start]++;
+        if (soldOutRound > 0) {
+            soldOutByStart[start]++;
+            soldOutRoundsByStart[start] += soldOutRound;
+        }
+        int players = policies.length;
+        long[] worth = new long[players];
+        for (int s = 0; s < players; s++) worth[s] = st.money[s];
+        for (int t = 0; t < st.owners.length; t++) {
+            if (st.owners[t] != 0) worth[st.seatOf(st.ownerOf(t))] += board.cost(t);
+        }
+        long best = Long.MIN_VALUE;
+        int winners = 0;
+        for (long w : worth) {
+            if (w > best) { best = w; winners = 1; }
+            else if (w == best) winners++;
+        }
+        for (int s = 0; s < players; s++) {
+            if (worth[s] == best) winsByStart[start][s] += 1.0 / winners;
+        }
+    }
+
+    SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        events += other.events;
+        for (int a = 0; a < startAmounts.length; a++) {
+            gamesByStart[a] += other.gamesByStart[a];
+            soldOutByStart[a] += other.soldOutByStart[a];
+            soldOutRoundsByStart[a] += other.soldOutRoundsByStart[a];
+            for (int s = 0; s < policies.length; s++) winsByStart[a][s] += other.winsByStart[a][s];
+        }
+        for (int t = 0; t < buys.length; t++) {
+            buys[t] += other.buys[t];
+            paid[t] += other.paid[t];
+            rent[t] += other.rent[t];
+        }
+        return this;
+    }
+
+    public long games() {
+        return games;
+    }
+
+    public long events() {
+        return events;
+    }
+
+    /** Share of games with this start amount won by the player in {@code seat}. */
+    public double winRate(int startAmount, int seat) {
+        int a = indexOf(startAmount);
+        return gamesByStart[a] == 0 ? 0 : winsByStart[a][seat] / gamesByStart[a];
+    }
+
+    /** Rent a tile brought in per unit of money paid for it, over all games. */
+    public double roi(int tile) {
+        return paid[tile] == 0 ? 0 : (double) rent[tile] / paid[tile];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        double secs = nanos / 1e9;
+        sb.append(String.format(Locale.ROOT, "%d games, %d events in %.2f s: %.0f games/s, %.0f events/s%n",
+                games, events, secs, games / secs, events / secs));
+        for (int a = 0; a < startAmounts.length; a++) {
+            long n = gamesByStart[a];
+            if (n == 0) continue;
+            sb.append(String.format(Locale.ROOT, "start %d: %d games, board sold out in %.0f%% after %.1f rounds on average%n",
+                    startAmounts[a], n, 100.0 * soldOutByStart[a] / n,
+                    soldOutByStart[a] == 0 ? 0 : (double) soldOutRoundsByStart[a] / soldOutByStart[a]));
+            for (int s = 0; s < policies.length; s++) {
+                sb.append(String.format(Locale.ROOT, "  seat %d %-12s wins %5.1f%%%n", s, policies[s], 100 * winsByStart[a][s] / n));
+            }
+        }
+        List<Integer> tiles = new ArrayList<>();
+        for (int t = 0; t < board.size(); t++) if (buys[t] > 0) tiles.add(t);
+        tiles.sort(Comparator.comparingDouble(this::roi).reversed());
+        sb.append("tile ROI (rent collected per unit paid):\n");
+        for (int t : tiles) {
+            sb.append(String.format(Locale.ROOT, "  %2d %-24s price %3d  bought %9d  roi %.3f%n",
+                    t, board.name(t), board.cost(t), buys[t], roi(t)));
+        }
+        return sb.toString();
+    }
+
+    private int indexOf(int startAmount) {
+        for (int a = 0; a < startAmounts.length; a++) if (startAmounts[a] == startAmount) return a;
+        throw new IllegalArgumentException("no games were played with start amount " + startAmount);
+    }
+}
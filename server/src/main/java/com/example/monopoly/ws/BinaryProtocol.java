@@ -0,0 +1,331 @@
+package com.example.monopoly.ws;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import com.example.monopoly.game.RoomState;
+
+/**
+ * Compact binary encoding of the game protocol, selected per connection with
+ * the {@value #SUBPROTOCOL} WebSocket subprotocol; connections without it keep
+ * the JSON text frames. Every frame is one type byte followed by its fields.
+ * Numbers are LEB128 varints (money zig-zag encoded), strings are a varint
+ * length plus UTF-8, and players and tiles are referred to by seat and tile
+ * index. Player ids only travel when a roster is sent.
+ *
+ * <p>Client to server: JOIN name, ROLL, BUY, READY flag, ADD_BOT name, KICK
+ * seat, SET_START_AMOUNT amount, START, BUY_PROPERTY tile, RESYNC, RESUME
+ * token version+1. Decoded into the same {@link Command} records as the JSON
+ * commands.
+ *
+ * <p>Server to client: STATE (version, flags, startAmount, turn seat, admin
+ * seat, last move, roster, board key, owner ids, one owner byte per tile),
+ * PATCH (from, version, a varint field mask, then the changed fields in mask
+ * order), and one frame per command result. The result of a command that
+ * changed the room follows the state or patch in the same WebSocket message.
+ * Seat 255 means none.
+ */
+public final class BinaryProtocol {
+    public static final String SUBPROTOCOL = "monopoly.bin.v1";
+    public static final String JSON_SUBPROTOCOL = "monopoly.json";
+
+    // client -> server
+    static final int JOIN = 1, ROLL = 2, BUY = 3, READY = 4, ADD_BOT = 5, KICK = 6,
+            SET_START_AMOUNT = 7, START = 8, BUY_PROPERTY = 9, RESYNC = 10, RESUME = 11;
+    // server -> client
+    static final int STATE = 0x40, PATCH = 0x41, ASSIGNED = 0x42, JOIN_RESULT = 0x43, ROLL_RESULT = 0x44,
+            BUY_RESULT = 0x45, ADD_BOT_RESULT = 0x46, KICK_RESULT = 0x47, SET_START_AMOUNT_RESULT = 0x48,
+            START_RESULT = 0x49, BUY_PROPERTY_RESULT = 0x4A, RESUME_RESULT = 0x4B;
+
+    // patch field mask
+    static final int P_STARTED = 1, P_ADMIN = 1 << 1, P_START_AMOUNT = 1 << 2, P_TURN = 1 << 3, P_LAST_MOVE = 1 << 4,
+            P_ROSTER = 1 << 5, P_PLAYERS = 1 << 6, P_BOARD = 1 << 7, P_OWNERS = 1 << 8;
+    // changed player fields
+    static final int F_POS = 1, F_MONEY = 1 << 1, F_READY = 1 << 2;
+
+    private static final int NO_SEAT = 0xFF;
+
+    private BinaryProtocol() {}
+
+    public static boolean isBinary(WebSocketSession session) {
+        return SUBPROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    /** Decode a client frame; null if it is malformed or of an unknown type. */
+    public static Command decodeCommand(ByteBuffer in) {
+        try {
+            return switch (in.get() & 0xFF) {
+                case JOIN -> new Command.Join(readString(in));
+                case ROLL -> Command.ROLL;
+                case BUY -> Command.BUY;
+                case READY -> new Command.Ready(in.get() != 0);
+                case ADD_BOT -> new Command.AddBot(readString(in));
+                case KICK -> new Command.Kick(null, in.get() & 0xFF);
+                case SET_START_AMOUNT -> new Command.SetStartAmount(readVarint(in));
+                case START -> Command.START;
+                case BUY_PROPERTY -> new Command.BuyProperty(readVarint(in));
+                case RESYNC -> Command.RESYNC;
+                case RESUME -> new Command.Resume(readString(in), readVarLong(in) - 1);
+                default -> null;
+            };
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Full state frame. */
+    public static byte[] encodeState(RoomState st) {
+        Out out = new Out(128 + st.board.size());
+        out.u8(STATE);
+        out.varint(st.seq);
+        out.u8(st.started ? 1 : 0);
+        out.varint(st.startAmount);
+        out.u8(seatOrNone(st.turnSeat));
+        out.u8(seatOrNone(st.seatOf(st.adminId)));
+        lastMove(out, st);
+        roster(out, st);
+        board(out, st);
+        return out.bytes();
+    }
+
+    /** Patch frame taking a client from version {@code from} to {@code to}. */
+    public static byte[] encodePatch(RoomState from, RoomState to) {
+        int mask = 0;
+        if (from.started != to.started) mask |= P_STARTED;
+        if (!Objects.equals(from.adminId, to.adminId)) mask |= P_ADMIN;
+        if (from.startAmount != to.startAmount) mask |= P_START_AMOUNT;
+        if (from.turnSeat != to.turnSeat) mask |= P_TURN;
+        if (!Objects.equals(from.lastMove, to.lastMove)) mask |= P_LAST_MOVE;
+        boolean sameRoster = from.seated == to.seated;
+        for (int s = 0; sameRoster && s < RoomState.MAX_SEATS; s++) {
+            sameRoster = !to.isSeated(s) || (to.seatIds[s].equals(from.seatIds[s]) && Objects.equals(to.names[s], from.names[s]));
+        }
+        int changed = 0;
+        if (!sameRoster) {
+            mask |= P_ROSTER;
+        } else {
+            for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+                if (to.isSeated(s) && playerFields(from, to, s) != 0) changed++;
+            }
+            if (changed > 0) mask |= P_PLAYERS;
+        }
+        boolean ownersAppend = from.board == to.board && to.ownerIds.size() >= from.ownerIds.size()
+                && to.ownerIds.subList(0, from.ownerIds.size()).equals(from.ownerIds);
+        if (!ownersAppend) mask |= P_BOARD;
+        else if (!Arrays.equals(from.owners, to.owners) || to.ownerIds.size() != from.ownerIds.size()) mask |= P_OWNERS;
+
+        Out out = new Out(32);
+        out.u8(PATCH);
+        out.varint(from.seq);
+        out.varint(to.seq);
+        out.varint(mask);
+        if ((mask & P_STARTED) != 0) out.u8(to.started ? 1 : 0);
+        if ((mask & P_ADMIN) != 0) out.u8(seatOrNone(to.seatOf(to.adminId)));
+        if ((mask & P_START_AMOUNT) != 0) out.varint(to.startAmount);
+        if ((mask & P_TURN) != 0) out.u8(seatOrNone(to.turnSeat));
+        if ((mask & P_LAST_MOVE) != 0) lastMove(out, to);
+        if ((mask & P_ROSTER) != 0) roster(out, to);
+        if ((mask & P_PLAYERS) != 0) {
+            out.u8(changed);
+            for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+                int fields = to.isSeated(s) ? playerFields(from, to, s) : 0;
+                if (fields == 0) continue;
+                out.u8(s);
+                out.u8(fields);
+                if ((fields & F_POS) != 0) out.varint(to.pos[s]);
+                if ((fields & F_MONEY) != 0) out.zigzag(to.money[s]);
+                if ((fields & F_READY) != 0) out.u8(to.isReady(s) ? 1 : 0);
+            }
+        }
+        if ((mask & P_BOARD) != 0) board(out, to);
+        if ((mask & P_OWNERS) != 0) {
+            List<String> added = to.ownerIds.subList(from.ownerIds.size(), to.ownerIds.size());
+            out.varint(added.size());
+            for (String id : added) out.string(id);
+            int n = 0;
+            for (int i = 0; i < to.owners.length; i++) if (from.owners[i] != to.owners[i]) n++;
+            out.varint(n);
+            for (int i = 0; i < to.owners.length; i++) {
+                if (from.owners[i] == to.owners[i]) continue;
+                out.varint(i);
+                out.u8(to.owners[i]);
+            }
+        }
+        return out.bytes();
+    }
+
+    /** Command result frame for a reply the JSON protocol sends as {@code {type, payload}}; null if the type is unknown. */
+    public static byte[] encodeReply(String type, Map<String, ?> payload) {
+        Out out = new Out(32);
+        boolean success = Boolean.TRUE.equals(payload.get("success"));
+        switch (type) {
+            case "assigned" -> {
+                out.u8(ASSIGNED);
+                out.string(String.valueOf(payload.get("id")));
+                out.string(String.valueOf(payload.get("roomId")));
+                out.string(payload.get("resumeToken") != null ? payload.get("resumeToken").toString() : "");
+            }
+            case "joinResult" -> {
+                out.u8(JOIN_RESULT);
+                out.u8(success ? 1 : 0);
+                out.string(payload.get("message") != null ? payload.get("message").toString() : "");
+            }
+            case "rollResult" -> {
+                out.u8(ROLL_RESULT);
+                out.u8(((Number) payload.get("dice")).intValue());
+            }
+            case "buyResult" -> {
+                out.u8(BUY_RESULT);
+                out.u8(success ? 1 : 0);
+                out.string(payload.get("message") != null ? payload.get("message").toString() : "");
+                out.varint(tileOrNone(payload.get("propertyId")));
+            }
+            case "addBotResult" -> {
+                out.u8(ADD_BOT_RESULT);
+                out.u8(success ? 1 : 0);
+                out.string(payload.get("botId") != null ? payload.get("botId").toString() : "");
+            }
+            case "kickResult", "setStartAmountResult", "startResult", "resumeResult" -> {
+                out.u8(switch (type) {
+                    case "kickResult" -> KICK_RESULT;
+                    case "startResult" -> START_RESULT;
+                    case "resumeResult" -> RESUME_RESULT;
+                    default -> SET_START_AMOUNT_RESULT;
+                });
+                out.u8(success ? 1 : 0);
+            }
+            case "buyPropertyResult" -> {
+                out.u8(BUY_PROPERTY_RESULT);
+                out.u8(success ? 1 : 0);
+                out.varint(tileOrNone(payload.get("propertyId")));
+            }
+            default -> {
+                return null;
+            }
+        }
+        return out.bytes();
+    }
+
+    private static int playerFields(RoomState from, RoomState to, int s) {
+        int f = 0;
+        if (from.pos[s] != to.pos[s]) f |= F_POS;
+        if (from.money[s] != to.money[s]) f |= F_MONEY;
+        if (from.isReady(s) != to.isReady(s)) f |= F_READY;
+        return f;
+    }
+
+    private static void lastMove(Out out, RoomState st) {
+        Object dice = st.lastMove.get("dice");
+        out.u8(seatOrNone(st.seatOf((String) st.lastMove.get("playerId"))));
+        out.u8(dice instanceof Number ? ((Number) dice).intValue() : 0);
+        out.u8(Boolean.TRUE.equals(st.lastMove.get("bot")) ? 1 : 0);
+    }
+
+    private static void roster(Out out, RoomState st) {
+        out.u8(st.seated);
+        out.u8(st.readyMask);
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            if (!st.isSeated(s)) continue;
+            out.string(st.seatIds[s]);
+            out.string(st.names[s] != null ? st.names[s] : "");
+            out.varint(st.pos[s]);
+            out.zigzag(st.money[s]);
+        }
+    }
+
+    // the tile table itself is static per board key, so only ownership travels
+    private static void board(Out out, RoomState st) {
+        out.string(st.board.key());
+        out.varint(st.ownerIds.size());
+        for (String id : st.ownerIds) out.string(id);
+        out.varint(st.owners.length);
+        out.raw(st.owners);
+    }
+
+    private static int seatOrNone(int seat) {
+        return seat < 0 ? NO_SEAT : seat;
+    }
+
+    private static int tileOrNone(Object tile) {
+        return tile instanceof Number ? ((Number) tile).intValue() + 1 : 0;
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.get() & 0xFF;
+            v |= (b & 0x7F) << shift;
+            if (b < 0x80) return v;
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get() & 0xFF;
+            v |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) return v;
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    private static String readString(ByteBuffer in) {
+        int n = readVarint(in);
+        if (n > in.remaining()) throw new IllegalArgumentException("string past end of frame");
+        byte[] b = new byte[n];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static final class Out {
+        byte[] buf;
+        int len;
+
+        Out(int capacity) { buf = new byte[capacity]; }
+
+        void ensure(int n) {
+            if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+        }
+
+        void u8(int v) {
+            ensure(1);
+            buf[len++] = (byte) v;
+        }
+
+        void varint(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[len++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[len++] = (byte) v;
+        }
+
+        void zigzag(int v) {
+            varint(((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL);
+        }
+
+        void string(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            varint(b.length);
+            raw(b);
+        }
+
+        void raw(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, len, b.length);
+            len += b.length;
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOf(buf, len);
+        }
+    }
+}
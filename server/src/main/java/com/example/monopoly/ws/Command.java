@@ -0,0 +1,87 @@
+package com.example.monopoly.ws;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A client command, decoded from either protocol. JSON commands are read in
+ * one streaming pass straight into these records, without building a map tree.
+ */
+public sealed interface Command {
+    record Join(String name) implements Command {}
+    record Roll() implements Command {}
+    record Buy() implements Command {}
+    record Ready(boolean ready) implements Command {}
+    record AddBot(String name) implements Command {}
+    /** Target by player id (JSON) or by seat (binary); the other is null. */
+    record Kick(String playerId, Integer seat) implements Command {}
+    record SetStartAmount(Integer amount) implements Command {}
+    record Start() implements Command {}
+    record BuyProperty(Integer propertyId) implements Command {}
+    record Resync() implements Command {}
+    /** Reclaim a seat after a reconnect; {@code version} is the last one the client has, -1 for none. */
+    record Resume(String token, long version) implements Command {}
+
+    // stateless commands are shared
+    Roll ROLL = new Roll();
+    Buy BUY = new Buy();
+    Start START = new Start();
+    Resync RESYNC = new Resync();
+
+    /**
+     * Read {@code {"type": ..., "payload": {...}}}. Fields may come in any order;
+     * unknown fields are skipped. Null for an unknown type or a non-object frame.
+     */
+    static Command fromJson(JsonParser p) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) return null;
+        String type = null, name = null, playerId = null, token = null;
+        Integer amount = null, propertyId = null;
+        long version = -1;
+        boolean ready = false;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken t = p.nextToken();
+            switch (field) {
+                case "type" -> type = t == JsonToken.VALUE_STRING ? p.getText() : null;
+                case "propertyId" -> propertyId = t.isNumeric() ? p.getIntValue() : null;
+                case "payload" -> {
+                    if (t != JsonToken.START_OBJECT) {
+                        p.skipChildren();
+                        continue;
+                    }
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String key = p.getCurrentName();
+                        JsonToken v = p.nextToken();
+                        switch (key) {
+                            case "name" -> name = v == JsonToken.VALUE_STRING ? p.getText() : null;
+                            case "playerId" -> playerId = v == JsonToken.VALUE_STRING ? p.getText() : null;
+                            case "ready" -> ready = v == JsonToken.VALUE_TRUE;
+                            case "amount" -> amount = v.isNumeric() ? p.getIntValue() : null;
+                            case "token" -> token = v == JsonToken.VALUE_STRING ? p.getText() : null;
+                            case "version" -> version = v.isNumeric() ? p.getLongValue() : -1;
+                            default -> p.skipChildren();
+                        }
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        if (type == null) return null;
+        return switch (type) {
+            case "join" -> new Join(name != null ? name : "Player");
+            case "roll" -> ROLL;
+            case "buy" -> BUY;
+            case "ready" -> new Ready(ready);
+            case "addBot" -> new AddBot(name != null ? name : "Bot");
+            case "kick" -> new Kick(playerId, null);
+            case "setStartAmount" -> new SetStartAmount(amount);
+            case "start" -> START;
+            case "buyProperty" -> new BuyProperty(propertyId);
+            case "resync" -> RESYNC;
+            case "resume" -> token != null ? new Resume(token, version) : null;
+            default -> null;
+        };
+    }
+}
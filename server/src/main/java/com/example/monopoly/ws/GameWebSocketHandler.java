@@ -4,28 +4,60 @@ import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import com.example.monopoly.service.GameService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.monopoly.service.RoomExecutor;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 
 @Component
-public class GameWebSocketHandler extends TextWebSocketHandler {
+public class GameWebSocketHandler extends AbstractWebSocketHandler {
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonFactory json = new JsonFactory();
     private final GameService gameService;
+    private final RoomExecutor roomExecutor;
+    private final SessionSender sender;
+    // command record type -> handler, built once
+    private final Map<Class<?>, CommandHandler<Command>> handlers = new HashMap<>();
     private static final Logger log = LoggerFactory.getLogger(GameWebSocketHandler.class);
 
-    public GameWebSocketHandler(GameService gameService) {
+    @FunctionalInterface
+    private interface CommandHandler<C extends Command> {
+        /** Runs on the room's mailbox; the reply is sent with the resulting state, null sends nothing. */
+        Reply handle(WebSocketSession session, C command) throws Exception;
+    }
+
+    /** Result of a command for its sender; {@link #NONE} broadcasts the state without a result. */
+    private record Reply(String type, Map<String, ?> payload) {
+        static final Reply NONE = new Reply(null, null);
+    }
+
+    public GameWebSocketHandler(GameService gameService, RoomExecutor roomExecutor, SessionSender sender) {
         this.gameService = gameService;
+        this.roomExecutor = roomExecutor;
+        this.sender = sender;
+        on(Command.Join.class, this::join);
+        on(Command.Roll.class, this::roll);
+        on(Command.Buy.class, this::buy);
+        on(Command.Ready.class, this::ready);
+        on(Command.AddBot.class, this::addBot);
+        on(Command.Kick.class, this::kick);
+        on(Command.SetStartAmount.class, this::setStartAmount);
+        on(Command.Start.class, this::start);
+        on(Command.Resync.class, this::resync);
+        on(Command.Resume.class, this::resume);
+        on(Command.BuyProperty.class, this::buyProperty);
     }
 
     @Override
@@ -39,112 +71,128 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        Map payload = mapper.readValue(message.getPayload(), Map.class);
-        Principal p = session.getPrincipal();
-        log.debug("WS msg from session={} principal={} payload={}", session.getId(), p != null ? p.getName() : "<anon>", message.getPayload());
-        String type = (String) payload.get("type");
-        Map data = (Map) payload.get("payload");
-        if ("join".equals(type)) {
-            String name = data != null && data.get("name") != null ? (String) data.get("name") : "Player";
-            Principal principal = session.getPrincipal();
-            String preferredId = principal != null ? principal.getName() : null;
-            String roomId = getRoomIdFromSession(session);
-            String id = gameService.addPlayer(session, name, preferredId, roomId);
-            // reply assigned id or error if full
-            if (id == null) {
-                session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "joinResult", "payload", Map.of("success", false, "message", "room-full")))));
-            } else {
-                session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "assigned", "payload", Map.of("id", id, "roomId", roomId)))));
-            }
-            broadcastState(session);
-        } else if ("roll".equals(type)) {
-            int dice = gameService.rollForSession(session);
-            // optional: reply to roller with the dice result
-            try {
-                session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "rollResult", "payload", Map.of("dice", dice)))));
-            } catch (Exception ignored) {}
-            broadcastState(session);
-        } else if ("buy".equals(type)) {
-            Map result = gameService.buyForSession(session);
-            try {
-                session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "buyResult", "payload", result))));
-            } catch (Exception ignored) {}
-            broadcastState(session);
-        } else if ("ready".equals(type)) {
-            boolean r = false;
-            if (data != null && data.get("ready") instanceof Boolean) r = (Boolean) data.get("ready");
-            gameService.setReadyForSession(session, r);
-            broadcastState(session);
-        } else if ("addBot".equals(type)) {
-            String botName = data != null && data.get("name") instanceof String ? (String) data.get("name") : "Bot";
-            String roomId = getRoomIdFromSession(session);
-            String botId = gameService.addBot(session, botName, roomId);
-            boolean success = botId != null;
-            try { 
-                session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "addBotResult", "payload", Map.of("success", success, "botId", botId != null ? botId : ""))))); 
-            } catch (Exception ignored) {}
-            broadcastState(session);
-        } else if ("kick".equals(type)) {
-            String target = data != null && data.get("playerId") instanceof String ? (String) data.get("playerId") : null;
-            boolean ok = false;
-            if (target != null) ok = gameService.kickPlayer(session, target);
-            try { session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "kickResult", "payload", Map.of("success", ok))))); } catch (Exception ignored) {}
-            broadcastState(session);
-        } else if ("setStartAmount".equals(type)) {
-            Integer amt = null;
-            if (data != null && data.get("amount") instanceof Number) amt = ((Number) data.get("amount")).intValue();
-            boolean ok = false;
-            if (amt != null) ok = gameService.setStartAmount(session, amt);
-            try { session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "setStartAmountResult", "payload", Map.of("success", ok))))); } catch (Exception ignored) {}
-            broadcastState(session);
-        } else if ("start".equals(type)) {
-            boolean ok = gameService.startForSession(session);
-            try {
-                session.sendMessage(new TextMessage(mapper.writeValueAsString(Map.of("type", "startResult", "payload", Map.of("success", ok)))));
-            } catch (Exception ignored) {}
-            broadcastState(session);
-        } else if ("buyProperty".equals(type)) {
-            Integer propertyId = payload.get("propertyId") instanceof Number ? ((Number) payload.get("propertyId")).intValue() : null;
-            String roomId = getRoomIdFromSession(session);
-            String playerId = gameService.getPlayerIdForSession(session);
-            
-            boolean success = false;
-            if (propertyId != null && playerId != null) {
-                success = gameService.buyProperty(roomId, playerId, propertyId);
-            }
-            
+        Command command;
+        try (JsonParser parser = json.createParser(message.getPayload())) {
+            command = Command.fromJson(parser);
+        }
+        if (command == null) {
+            log.debug("WS unknown command from session={}", session.getId());
+            return;
+        }
+        if (log.isTraceEnabled()) log.trace("WS msg from session={} command={}", session.getId(), command);
+        dispatch(session, command);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        Command command = BinaryProtocol.decodeCommand(message.getPayload());
+        if (command == null) {
+            log.debug("WS malformed binary frame from session={}", session.getId());
+            return;
+        }
+        if (log.isTraceEnabled()) log.trace("WS msg from session={} command={}", session.getId(), command);
+        dispatch(session, command);
+    }
+
+    private void dispatch(WebSocketSession session, Command command) {
+        CommandHandler<Command> handler = handlers.get(command.getClass());
+        String roomId = getRoomIdFromSession(session);
+        // every command of a room, and every send to its sessions, runs on that room's mailbox
+        roomExecutor.execute(roomId, () -> {
             try {
-                session.sendMessage(new TextMessage(mapper.writeValueAsString(
-                    Map.of("type", "buyPropertyResult", "payload", Map.of("success", success, "propertyId", propertyId != null ? propertyId : -1))
-                )));
-            } catch (Exception ignored) {}
-            
-            if (success) {
-                broadcastState(session);
+                Reply reply = handler.handle(session, command);
+                // the state change and this command's result reach the sender in one frame
+                if (reply != null) gameService.broadcastState(roomId, session, reply.type(), reply.payload());
+            } catch (Exception e) {
+                log.error("WS command failed: session={} error={}", session.getId(), e.getMessage(), e);
             }
-        }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C extends Command> void on(Class<C> type, CommandHandler<C> handler) {
+        handlers.put(type, (CommandHandler<Command>) (CommandHandler<?>) handler);
+    }
+
+    private Reply join(WebSocketSession session, Command.Join c) {
+        Principal principal = session.getPrincipal();
+        String preferredId = principal != null ? principal.getName() : null;
+        String roomId = getRoomIdFromSession(session);
+        String id = gameService.addPlayer(session, c.name(), preferredId, roomId);
+        // reply assigned id or error if full
+        if (id == null) return new Reply("joinResult", Map.of("success", false, "message", "room-full"));
+        return new Reply("assigned", Map.of("id", id, "roomId", roomId, "resumeToken", gameService.resumeToken(session)));
+    }
+
+    // a reconnect within the grace period keeps the seat and only gets what it missed
+    private Reply resume(WebSocketSession session, Command.Resume c) {
+        String roomId = getRoomIdFromSession(session);
+        String id = gameService.resume(session, roomId, c.token(), c.version());
+        if (id == null) return new Reply("resumeResult", Map.of("success", false));
+        return new Reply("assigned", Map.of("id", id, "roomId", roomId, "resumeToken", c.token()));
+    }
+
+    private Reply roll(WebSocketSession session, Command.Roll c) {
+        int dice = gameService.rollForSession(session);
+        return new Reply("rollResult", Map.of("dice", dice));
+    }
+
+    private Reply buy(WebSocketSession session, Command.Buy c) {
+        return new Reply("buyResult", gameService.buyForSession(session));
+    }
+
+    private Reply ready(WebSocketSession session, Command.Ready c) {
+        gameService.setReadyForSession(session, c.ready());
+        return Reply.NONE;
+    }
+
+    private Reply addBot(WebSocketSession session, Command.AddBot c) {
+        String botId = gameService.addBot(session, c.name(), getRoomIdFromSession(session));
+        return new Reply("addBotResult", Map.of("success", botId != null, "botId", botId != null ? botId : ""));
+    }
+
+    private Reply kick(WebSocketSession session, Command.Kick c) {
+        String target = c.playerId() != null ? c.playerId() : c.seat() != null ? gameService.getPlayerIdAtSeat(session, c.seat()) : null;
+        boolean ok = target != null && gameService.kickPlayer(session, target);
+        return new Reply("kickResult", Map.of("success", ok));
+    }
+
+    private Reply setStartAmount(WebSocketSession session, Command.SetStartAmount c) {
+        boolean ok = c.amount() != null && gameService.setStartAmount(session, c.amount());
+        return new Reply("setStartAmountResult", Map.of("success", ok));
+    }
+
+    private Reply start(WebSocketSession session, Command.Start c) {
+        return new Reply("startResult", Map.of("success", gameService.startForSession(session)));
+    }
+
+    private Reply resync(WebSocketSession session, Command.Resync c) {
+        // client saw a version gap in the patches
+        gameService.sendState(session);
+        return null;
+    }
+
+    private Reply buyProperty(WebSocketSession session, Command.BuyProperty c) {
+        String roomId = getRoomIdFromSession(session);
+        String playerId = gameService.getPlayerIdForSession(session);
+        boolean success = c.propertyId() != null && playerId != null && gameService.buyProperty(roomId, playerId, c.propertyId());
+        return new Reply("buyPropertyResult", Map.of("success", success, "propertyId", c.propertyId() != null ? c.propertyId() : -1));
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        gameService.removeSession(session);
-        broadcastState(session);
+        sender.close(session);
+        roomExecutor.execute(getRoomIdFromSession(session), () -> {
+            gameService.removeSession(session);
+            gameService.broadcastState(getRoomIdFromSession(session));
+        });
         Principal p = session.getPrincipal();
         log.info("WS closed: session={} principal={} status={}", session.getId(), p != null ? p.getName() : "<anon>", status);
     }
 
-    private void broadcastState(WebSocketSession session) {
-        try {
-            var state = gameService.getStateForRoom(session);
-            var msg = Map.of("type", "state", "payload", state);
-            var text = mapper.writeValueAsString(msg);
-            gameService.broadcastToRoom(session, text);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
+    // read from the URL once, when the connection opens, and kept on the session
     private String getRoomIdFromSession(WebSocketSession session) {
+        if (session.getAttributes().get("roomId") instanceof String room) return room;
         try {
             URI uri = session.getUri();
             if (uri == null) return "default";
@@ -0,0 +1,233 @@
+package com.example.monopoly.ws;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.example.monopoly.config.VirtualThreads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Outbound path for every frame the server sends. Each session has its own
+ * bounded outbox drained by one sender at a time, so frames keep their order,
+ * a raw session is never written by two threads at once, and a client that
+ * reads slowly only delays itself, never its room or the thread that produced
+ * the frame. Senders are virtual threads when {@code game.threads.virtual} is
+ * on and the runtime supports them, otherwise a fixed platform pool.
+ *
+ * <p>An outbox holds at most {@code game.ws.outbox.limit} frames. What happens
+ * to a frame that does not fit is {@code game.ws.outbox.overflow}:
+ * <ul>
+ * <li>{@code conflate} (default): a state frame replaces every unsent state
+ * frame with the full state of its version; other frames are dropped.</li>
+ * <li>{@code drop}: the frame is dropped; the client sees a version gap and
+ * asks for a resync once it catches up.</li>
+ * <li>{@code disconnect}: the session is closed.</li>
+ * </ul>
+ */
+@Component
+public class SessionSender {
+    private static final Logger log = LoggerFactory.getLogger(SessionSender.class);
+
+    public enum Overflow { DROP, CONFLATE, DISCONNECT }
+
+    private final ExecutorService senders;
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final int limit;
+    private final Overflow overflow;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter conflated;
+    private final Counter dropped;
+    private final Counter disconnected;
+
+    public SessionSender(MeterRegistry registry,
+                         @Value("${game.threads.virtual:false}") boolean virtual,
+                         @Value("${game.ws.sender-threads:0}") int threads,
+                         @Value("${game.ws.outbox.limit:64}") int limit,
+                         @Value("${game.ws.outbox.overflow:conflate}") String overflow) {
+        if (virtual && VirtualThreads.available()) {
+            this.senders = VirtualThreads.newPerTaskExecutor("ws-send-");
+            log.info("WebSocket sends run on virtual threads");
+        } else {
+            if (virtual) log.warn("game.threads.virtual is set but this runtime has no virtual threads, using platform threads");
+            int n = threads > 0 ? threads : 2 * Runtime.getRuntime().availableProcessors();
+            AtomicInteger seq = new AtomicInteger();
+            this.senders = Executors.newFixedThreadPool(n, r -> {
+                Thread t = new Thread(r, "ws-send-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        this.limit = Math.max(2, limit);
+        this.overflow = Overflow.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+        this.conflated = Counter.builder("game.ws.outbox.conflated").description("unsent state frames replaced by a newer full state").register(registry);
+        this.dropped = Counter.builder("game.ws.outbox.dropped").register(registry);
+        this.disconnected = Counter.builder("game.ws.outbox.disconnected").register(registry);
+        Gauge.builder("game.ws.outbox.queued", queued, AtomicInteger::get).register(registry);
+        Gauge.builder("game.ws.outbox.max.depth", outboxes, SessionSender::maxDepth).register(registry);
+    }
+
+    /** Queue a frame for the session; returns immediately. The frame is never conflated. */
+    public void send(WebSocketSession session, WebSocketMessage<?> message) {
+        offer(session, message, null);
+    }
+
+    /**
+     * Queue a state or patch frame. If the outbox overflows under the conflate
+     * policy, unsent state frames are dropped and {@code fullState} (the full
+     * state of the same version) is queued in their place.
+     */
+    public void sendState(WebSocketSession session, WebSocketMessage<?> message, Supplier<WebSocketMessage<?>> fullState) {
+        offer(session, message, fullState);
+    }
+
+    /** Forget a closed session and drop whatever it had queued. */
+    public void close(WebSocketSession session) {
+        Outbox o = outboxes.remove(session.getId());
+        if (o != null) o.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(2, TimeUnit.SECONDS)) senders.shutdownNow();
+        } catch (InterruptedException e) {
+            senders.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void offer(WebSocketSession session, WebSocketMessage<?> message, Supplier<WebSocketMessage<?>> fullState) {
+        if (!session.isOpen()) return;
+        outboxes.computeIfAbsent(session.getId(), k -> new Outbox(session)).offer(message, fullState);
+    }
+
+    private static double maxDepth(Map<String, Outbox> outboxes) {
+        int max = 0;
+        for (Outbox o : outboxes.values()) max = Math.max(max, o.depth());
+        return max;
+    }
+
+    private record Frame(WebSocketMessage<?> message, boolean state) {}
+
+    private final class Outbox implements Runnable {
+        final WebSocketSession session;
+        // one room mailbox produces, one sender consumes; the lock is uncontended in practice
+        final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        boolean scheduled;
+        boolean closing; // disconnected for overflow, waiting for the close to go through
+
+        Outbox(WebSocketSession session) { this.session = session; }
+
+        void offer(WebSocketMessage<?> message, Supplier<WebSocketMessage<?>> fullState) {
+            boolean state = fullState != null;
+            boolean disconnect = false;
+            synchronized (this) {
+                if (closing) return;
+                if (queue.size() < limit) {
+                    push(new Frame(message, state));
+                } else if (overflow == Overflow.DISCONNECT) {
+                    disconnect = true;
+                } else if (overflow == Overflow.CONFLATE && state) {
+                    int removed = 0;
+                    for (Iterator<Frame> it = queue.iterator(); it.hasNext(); ) {
+                        if (it.next().state()) {
+                            it.remove();
+                            removed++;
+                        }
+                    }
+                    queued.addAndGet(-removed);
+                    conflated.increment(removed);
+                    if (queue.size() < limit) push(new Frame(fullState.get(), true));
+                    else dropped.increment();
+                } else {
+                    dropped.increment();
+                }
+                if (!disconnect) {
+                    schedule();
+                    return;
+                }
+                closing = true;
+                clear();
+            }
+            disconnected.increment();
+            log.info("Closing slow WebSocket session {}: outbox over {} frames", session.getId(), limit);
+            senders.execute(() -> {
+                try {
+                    session.close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException e) {
+                    log.debug("Close of session {} failed: {}", session.getId(), e.getMessage());
+                }
+            });
+        }
+
+        // callers hold the lock
+        private void push(Frame f) {
+            queue.add(f);
+            queued.incrementAndGet();
+        }
+
+        private void schedule() {
+            if (scheduled || queue.isEmpty()) return;
+            scheduled = true;
+            try {
+                senders.execute(this);
+            } catch (RuntimeException e) {
+                scheduled = false;
+                clear();
+            }
+        }
+
+        synchronized void clear() {
+            queued.addAndGet(-queue.size());
+            queue.clear();
+        }
+
+        synchronized int depth() {
+            return queue.size();
+        }
+
+        private synchronized Frame poll() {
+            Frame f = queue.poll();
+            if (f != null) queued.decrementAndGet();
+            else scheduled = false;
+            return f;
+        }
+
+        @Override
+        public void run() {
+            for (Frame f; (f = poll()) != null; ) {
+                if (!session.isOpen()) {
+                    clear();
+                    continue; // the next poll finds the queue empty and unschedules
+                }
+                try {
+                    session.sendMessage(f.message());
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Send to session {} failed: {}", session.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+}
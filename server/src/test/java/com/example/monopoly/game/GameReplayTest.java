@@ -0,0 +1,94 @@
+package com.example.monopoly.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class GameReplayTest {
+
+    @Test
+    void replayingARecordedGameReproducesIt() {
+        RoomState start = newGame(7L);
+        RoomState live = start.copy();
+        List<GameEvent> moves = play(live, 60);
+
+        GameReplay.Result result = GameReplay.replay(start, moves);
+
+        assertThat(result.reproduced()).isTrue();
+        assertThat(result.moves()).isEqualTo(moves.size());
+        RoomState replayed = result.state();
+        assertThat(replayed.seq).isEqualTo(live.seq);
+        assertThat(replayed.rolls).isEqualTo(live.rolls);
+        assertThat(replayed.turns).isEqualTo(live.turns);
+        assertThat(replayed.pos).isEqualTo(live.pos);
+        assertThat(replayed.money).isEqualTo(live.money);
+        for (int t = 0; t < live.board.size(); t++) assertThat(replayed.ownerOf(t)).isEqualTo(live.ownerOf(t));
+        // the start state is left as it was
+        assertThat(start.rolls).isZero();
+    }
+
+    @Test
+    void aRollTheDiceDoNotGiveIsCaught() {
+        RoomState start = newGame(7L);
+        List<GameEvent> moves = play(start.copy(), 20);
+        int tampered = -1;
+        for (int i = moves.size() - 1; i >= 0 && tampered < 0; i--) {
+            if (moves.get(i) instanceof GameEvent.Rolled r) {
+                moves.set(i, new GameEvent.Rolled(r.playerId(), r.dice() == 2 ? 3 : 2, r.bot()));
+                tampered = i;
+            }
+        }
+
+        GameReplay.Result result = GameReplay.replay(start, moves);
+
+        assertThat(result.reproduced()).isFalse();
+        assertThat(result.divergedAt()).isEqualTo(tampered);
+        assertThat(result.reason()).contains("the room's dice give");
+    }
+
+    @Test
+    void theSameSeedRollsTheSameDice() {
+        for (long n = 0; n < 1000; n++) {
+            int dice = RoomRandom.dice(99L, n);
+            assertThat(dice).isBetween(1, 6).isEqualTo(RoomRandom.dice(99L, n));
+        }
+        assertThat(play(newGame(1L), 30)).isEqualTo(play(newGame(1L), 30));
+        assertThat(play(newGame(1L), 30)).isNotEqualTo(play(newGame(2L), 30));
+    }
+
+    private static RoomState newGame(long seed) {
+        RoomState st = new RoomState();
+        GameRules.apply(st, new GameEvent.RoomCreated("classic", null, 1500, seed));
+        GameRules.apply(st, new GameEvent.PlayerJoined("a", "A", 1500, false));
+        GameRules.apply(st, new GameEvent.PlayerJoined("b", "B", 1500, false));
+        GameRules.apply(st, new GameEvent.Started());
+        return st;
+    }
+
+    // play rolls the way the server does, buying whatever can be bought and paying rent, recording every event
+    private static List<GameEvent> play(RoomState st, int rolls) {
+        List<GameEvent> moves = new ArrayList<>();
+        for (int i = 0; i < rolls; i++) {
+            String id = st.currentTurn();
+            int seat = st.seatOf(id);
+            record(st, moves, new GameEvent.Rolled(id, RoomRandom.dice(st.seed, st.rolls), false));
+            int tile = st.pos[seat];
+            String owner = st.ownerOf(tile);
+            if (GameRules.refuseBuy(st, seat, tile) == null) {
+                record(st, moves, new GameEvent.Bought(id, tile, st.board.cost(tile)));
+            } else if (owner != null && !owner.equals(id) && st.money[seat] >= GameRules.rent(st.board, tile)) {
+                record(st, moves, new GameEvent.RentPaid(id, owner, tile, GameRules.rent(st.board, tile)));
+            }
+        }
+        return moves;
+    }
+
+    private static void record(RoomState st, List<GameEvent> moves, GameEvent event) {
+        GameRules.apply(st, event);
+        st.seq++;
+        moves.add(event);
+    }
+}
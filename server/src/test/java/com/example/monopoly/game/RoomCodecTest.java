@@ -0,0 +1,61 @@
+package com.example.monopoly.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class RoomCodecTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        RoomState st = new RoomState();
+        GameRules.apply(st, new GameEvent.RoomCreated("classic", "alice@example.com", 1500, 42L));
+        GameRules.apply(st, new GameEvent.PlayerJoined("alice", "Alice", 1500, false));
+        GameRules.apply(st, new GameEvent.PlayerJoined("bot_1", "Robo", 1500, true));
+        GameRules.apply(st, new GameEvent.PlayerLeft("alice"));
+        GameRules.apply(st, new GameEvent.PlayerJoined("bob", "Bob", 1200, false));
+        GameRules.apply(st, new GameEvent.Started());
+        GameRules.apply(st, new GameEvent.Rolled("bot_1", RoomRandom.dice(st.seed, st.rolls), true));
+        GameRules.apply(st, new GameEvent.Bought("bot_1", 39, 400));
+        GameRules.apply(st, new GameEvent.Bought("bob", 1, 60));
+        st.seq = 9;
+
+        RoomState back = RoomCodec.decode(ByteBuffer.wrap(RoomCodec.encode(st)));
+
+        assertThat(back.seq).isEqualTo(9);
+        assertThat(back.board.key()).isEqualTo("classic");
+        assertThat(back.adminId).isEqualTo(st.adminId);
+        assertThat(back.adminPrincipal).isEqualTo("alice@example.com");
+        assertThat(back.startAmount).isEqualTo(1500);
+        assertThat(back.started).isTrue();
+        assertThat(back.currentTurn()).isEqualTo(st.currentTurn());
+        assertThat(back.lastMove).isEqualTo(st.lastMove);
+        assertThat(back.seed).isEqualTo(42L);
+        assertThat(back.rolls).isEqualTo(1);
+        assertThat(back.turns).isEqualTo(1);
+        for (int s = 0; s < RoomState.MAX_SEATS; s++) {
+            assertThat(back.isSeated(s)).as("seat %d", s).isEqualTo(st.isSeated(s));
+            if (!st.isSeated(s)) continue;
+            assertThat(back.seatIds[s]).isEqualTo(st.seatIds[s]);
+            assertThat(back.names[s]).isEqualTo(st.names[s]);
+            assertThat(back.pos[s]).isEqualTo(st.pos[s]);
+            assertThat(back.money[s]).isEqualTo(st.money[s]);
+            assertThat(back.isReady(s)).isEqualTo(st.isReady(s));
+        }
+        for (int t = 0; t < st.board.size(); t++) {
+            assertThat(back.ownerOf(t)).as("owner of tile %d", t).isEqualTo(st.ownerOf(t));
+        }
+    }
+
+    @Test
+    void encodesAnEmptyRoom() {
+        RoomState back = RoomCodec.decode(ByteBuffer.wrap(RoomCodec.encode(new RoomState())));
+
+        assertThat(back.playerCount()).isZero();
+        assertThat(back.adminId).isNull();
+        assertThat(back.currentTurn()).isNull();
+        assertThat(back.lastMove).isEmpty();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.monopoly.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PersistenceWriterTest {
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RoomJournal journal;
+    private PersistenceWriter writer;
+
+    @AfterEach
+    void close() {
+        if (writer != null) writer.close();
+        if (journal != null) journal.close();
+    }
+
+    @Test
+    void failedRecordsAreRetriedAheadOfNewOnes() throws IOException {
+        open(1_000_000, 1_000_000);
+        // a directory where the room's journal file goes makes every write fail
+        Path blocker = Files.createDirectories(dir.resolve("rooms/r.log"));
+        for (int i = 1; i <= 3; i++) writer.append("r", bytes("{\"n\":" + i + "}"), null);
+        writer.flush();
+        assertThat(writer.isFailing("r")).isTrue();
+        assertThat(writer.getPendingCount()).isZero();
+
+        Files.delete(blocker);
+        writer.append("r", bytes("{\"n\":4}"), null);
+        writer.flush();
+
+        assertThat(writer.isFailing("r")).isFalse();
+        assertThat(Files.readAllLines(dir.resolve("rooms/r.log")))
+                .containsExactly("{\"n\":1}", "{\"n\":2}", "{\"n\":3}", "{\"n\":4}");
+    }
+
+    @Test
+    void aFailingRoomBacksOffInsteadOfSpinning() throws Exception {
+        open(20, 4);
+        Files.createDirectories(dir.resolve("rooms/r.log"));
+        // far more than flush-every, which used to keep the writer from ever waiting
+        for (int i = 0; i < 100; i++) writer.append("r", bytes("{\"n\":" + i + "}"), null);
+        Thread.sleep(500);
+
+        // retries after 20, 40, 80, 160 ms... a spinning writer fails thousands of times here
+        assertThat(registry.counter("game.persistence.failures").count()).isBetween(1.0, 10.0);
+        assertThat(writer.isFailing("r")).isTrue();
+        assertThat(writer.getPendingCount()).isZero();
+    }
+
+    private void open(long flushIntervalMs, int flushEvery) {
+        journal = new RoomJournal(dir.resolve("rooms").toString(), 50, 200);
+        writer = new PersistenceWriter(journal, new RoomHistory(dir.resolve("history").toString(), 0),
+                registry, flushIntervalMs, flushEvery);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
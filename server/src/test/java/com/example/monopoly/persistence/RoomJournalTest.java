@@ -0,0 +1,81 @@
+package com.example.monopoly.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoomJournalTest {
+    @TempDir
+    Path dir;
+
+    private RoomJournal journal;
+
+    @AfterEach
+    void close() {
+        if (journal != null) journal.close();
+    }
+
+    @Test
+    void readsRecordsBackInOrder() throws IOException {
+        journal = open();
+        assertThat(journal.append("r1", bytes("a"))).isEqualTo(1);
+        assertThat(journal.append("r1", bytes("b"))).isEqualTo(2);
+        journal.append("r2", bytes("x"));
+
+        assertThat(lines(journal.read("r1"))).containsExactly("a", "b");
+        assertThat(lines(journal.read("r2"))).containsExactly("x");
+        assertThat(journal.read("none")).isEmpty();
+        assertThat(journal.roomIds()).containsExactlyInAnyOrder("r1", "r2");
+    }
+
+    @Test
+    void reopeningCutsATornLastRecord() throws IOException {
+        journal = open();
+        journal.append("r1", bytes("a"));
+        journal.append("r1", bytes("b"));
+        journal.close();
+        // a crash in the middle of a write leaves a line without its newline
+        Files.write(dir.resolve("r1.log"), bytes("{\"torn"), StandardOpenOption.APPEND);
+
+        journal = open();
+        assertThat(journal.append("r1", bytes("c"))).isEqualTo(3);
+        assertThat(lines(journal.read("r1"))).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void compactionReplacesTheRecordsWithTheSnapshot() throws IOException {
+        journal = open();
+        journal.append("r1", bytes("a"));
+        journal.append("r1", bytes("b"));
+        journal.compact("r1", bytes("snap"));
+        assertThat(journal.append("r1", bytes("c"))).isEqualTo(2);
+        journal.close();
+
+        journal = open();
+        assertThat(lines(journal.read("r1"))).containsExactly("snap", "c");
+        journal.delete("r1");
+        assertThat(journal.read("r1")).isEmpty();
+        assertThat(journal.roomIds()).isEmpty();
+    }
+
+    private RoomJournal open() {
+        return new RoomJournal(dir.toString(), 50, 200);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> lines(List<byte[]> records) {
+        return records.stream().map(b -> new String(b, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.monopoly.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RoomExecutorTest {
+    private final RoomExecutor executor = new RoomExecutor(4, false, 1, 64);
+
+    @AfterEach
+    void close() {
+        executor.close();
+    }
+
+    @Test
+    void runsEachRoomsTasksOneAtATimeInOrder() throws InterruptedException {
+        int rooms = 8, perRoom = 5_000;
+        List<List<Integer>> seen = new ArrayList<>();
+        AtomicBoolean[] busy = new AtomicBoolean[rooms];
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(rooms * perRoom);
+        for (int r = 0; r < rooms; r++) {
+            seen.add(new ArrayList<>());
+            busy[r] = new AtomicBoolean();
+        }
+        // one submitter per room keeps submission order well defined; mailboxes drain and retire between bursts
+        List<Thread> submitters = new ArrayList<>();
+        for (int r = 0; r < rooms; r++) {
+            int room = r;
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < perRoom; i++) {
+                    int n = i;
+                    executor.execute("room-" + room, () -> {
+                        if (!busy[room].compareAndSet(false, true)) overlaps.incrementAndGet();
+                        seen.get(room).add(n);
+                        busy[room].set(false);
+                        done.countDown();
+                    });
+                    if (i % 500 == 0) Thread.yield();
+                }
+            });
+            submitters.add(t);
+            t.start();
+        }
+        for (Thread t : submitters) t.join();
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(overlaps).hasValue(0);
+        for (List<Integer> order : seen) {
+            assertThat(order).hasSize(perRoom).isSorted();
+        }
+    }
+
+    @Test
+    void aCallFromTheSameRoomRunsInline() throws Exception {
+        String result = executor.call("r1", () -> executor.call("r1", () -> "inner") + "+outer");
+
+        assertThat(result).isEqualTo("inner+outer");
+    }
+
+    @Test
+    void scheduledTasksRunOnARoomWorkerNotTheTimer() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        List<String> thread = new ArrayList<>();
+        executor.schedule("r1", 20, () -> {
+            thread.add(Thread.currentThread().getName());
+            ran.countDown();
+        });
+
+        assertThat(ran.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(thread).singleElement().asString().startsWith("room-worker-");
+        assertThat(executor.scheduled()).isZero();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.monopoly.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+    private final TimingWheel wheel = new TimingWheel("test-wheel", 1, 64);
+
+    @AfterEach
+    void close() {
+        wheel.close();
+    }
+
+    @Test
+    void firesOnceTheDelayHasPassed() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long started = System.nanoTime();
+        wheel.schedule(30, fired::countDown);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void firesDeadlinesFurtherAwayThanOneTurnOfTheWheel() throws InterruptedException {
+        // 64 buckets of 1 ms: 150 ms goes round the wheel twice before it is due
+        CountDownLatch fired = new CountDownLatch(1);
+        long started = System.nanoTime();
+        wheel.schedule(150, fired::countDown);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(150));
+    }
+
+    @Test
+    void aCancelledTaskNeverRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+        TimingWheel.Timeout t = wheel.schedule(30, runs::incrementAndGet);
+        wheel.schedule(80, later::countDown);
+
+        assertThat(t.cancel()).isTrue();
+        assertThat(t.cancel()).isFalse();
+        assertThat(later.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(runs).hasValue(0);
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void aTaskThatRanCannotBeCancelled() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        TimingWheel.Timeout t = wheel.schedule(0, fired::countDown);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(t.cancel()).isFalse();
+    }
+}